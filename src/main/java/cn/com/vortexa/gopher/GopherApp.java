@@ -7,13 +7,21 @@ import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 /**
+ * 启动时在创建任何 HttpClient 之前设置 jdk.http.auth.tunneling.disabledSchemes（JDK 只读取一次）：
+ * 带账号密码的代理需要对 CONNECT 隧道做 Basic 认证，JDK 默认禁用。启动参数里已显式指定 -D 时不覆盖
+ *
  * @author helei
  * @since 2025-10-02
  */
 @SpringBootApplication
 @ImportAutoConfiguration(BotTemplateAutoConfig.class)
 public class GopherApp {
+    public static final String TUNNELING_DISABLED_SCHEMES_PROPERTY = "jdk.http.auth.tunneling.disabledSchemes";
+
     public static void main(String[] args) {
+        if (System.getProperty(TUNNELING_DISABLED_SCHEMES_PROPERTY) == null) {
+            System.setProperty(TUNNELING_DISABLED_SCHEMES_PROPERTY, "");
+        }
         SpringApplication.run(GopherApp.class, args);
     }
 }
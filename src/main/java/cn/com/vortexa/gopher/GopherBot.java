@@ -13,7 +13,30 @@ import cn.com.vortexa.bot_template.constants.VortexaBotApiSchedulerType;
 import cn.com.vortexa.bot_template.entity.AccountContext;
 import cn.com.vortexa.common.dto.PageResult;
 import cn.com.vortexa.gopher.service.GopherApi;
+import cn.com.vortexa.gopher.service.GopherAsyncApi;
 import cn.com.vortexa.gopher.service.impl.GopherApiImpl;
+import cn.com.vortexa.gopher.service.impl.GopherAsyncApiImpl;
+import cn.com.vortexa.gopher.service.impl.GopherBlockScheduler;
+import cn.com.vortexa.gopher.service.impl.GopherFaucetScheduler;
+import cn.com.vortexa.gopher.service.impl.GopherRpcClient;
+import cn.com.vortexa.gopher.service.impl.GopherSequenceManager;
+import cn.com.vortexa.gopher.service.impl.GopherTxPipeline;
+import cn.com.vortexa.gopher.util.GopherKeyCache;
+import cn.com.vortexa.gopher.util.GopherWalletCache;
+import cn.com.vortexa.gopher.util.GopherWalletGenerator;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
 
 /**
  * @author helei
@@ -34,11 +57,97 @@ public class GopherBot extends AbstractVortexaBot {
     public static final String GROUP_OPERATE= "operate";
 
 
+    /**
+     * 异步模式下同时在途的账户数上限
+     */
+    private static final int ASYNC_MAX_IN_FLIGHT = 200;
+
+    /**
+     * 批量生成钱包时每批账户数，整批生成后一起写入
+     */
+    private static final int BULK_WALLET_BATCH_SIZE = 1000;
+
+    /**
+     * 节点 gRPC 地址 host:port，配置后查询与广播走 gRPC（每个代理一条连接），否则走 JSON-RPC；默认不配置
+     */
+    public static final String GRPC_TARGET_PROPERTY = "gopher.grpc.target";
+
+    public static final String GRPC_TLS_PROPERTY = "gopher.grpc.tls";
+
+    /**
+     * 是否把同一代理下多个账户的 abci_query 合并为 JSON-RPC 批量请求，默认关闭
+     */
+    public static final String JSON_RPC_BATCH_PROPERTY = "gopher.rpc.batch";
+
+    /**
+     * 水龙头初始领取速率（次/秒），之后按成功与 429 的情况自适应
+     */
+    public static final String FAUCET_RATE_PROPERTY = "gopher.faucet.rate";
+
+    /**
+     * 质押 / 解除质押交易是否本地组装（gas 取本地估算），默认关闭，沿用 hub prepare-tx 接口给出的 gasEstimate
+     */
+    public static final String LOCAL_TX_ASSEMBLY_PROPERTY = "gopher.tx.local";
+
+    /**
+     * 广播前是否先 Simulate，默认关闭
+     */
+    public static final String SIMULATE_PROPERTY = "gopher.tx.simulate";
+
+    /**
+     * 广播后是否通过 websocket 订阅等待交易上链，默认关闭；关闭时不建立订阅连接。
+     * 开启后整个 bot 一条直连节点的 websocket（不走账户代理），成功上链交易的 gas_used 用于学习 gas
+     */
+    public static final String CONFIRM_PROPERTY = "gopher.tx.confirm";
+
     public final GopherApi gopherApi;
 
+    public final GopherAsyncApi gopherAsyncApi;
+
+    private final GopherRpcClient rpcClient;
+
+    private final GopherSequenceManager sequenceManager;
+
+    private final GopherBlockScheduler blockScheduler;
+
+    private final GopherFaucetScheduler faucetScheduler;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
     public GopherBot(VortexaBotContext vortexaBotContext) {
         super(vortexaBotContext);
-        this.gopherApi = new GopherApiImpl();
+        this.rpcClient = new GopherRpcClient(
+                GopherRpcClient.DEFAULT_MAX_CONCURRENT_REQUESTS,
+                System.getProperty(GRPC_TARGET_PROPERTY),
+                Boolean.parseBoolean(System.getProperty(GRPC_TLS_PROPERTY, "true")),
+                Boolean.parseBoolean(System.getProperty(JSON_RPC_BATCH_PROPERTY, "false")),
+                Boolean.parseBoolean(System.getProperty(LOCAL_TX_ASSEMBLY_PROPERTY, "false")),
+                Boolean.parseBoolean(System.getProperty(SIMULATE_PROPERTY, "false")),
+                Boolean.parseBoolean(System.getProperty(CONFIRM_PROPERTY, "false"))
+        );
+        this.sequenceManager = new GopherSequenceManager(rpcClient);
+        this.blockScheduler = new GopherBlockScheduler(rpcClient, GopherBlockScheduler.DEFAULT_POLL_INTERVAL_MILLIS);
+        GopherFaucetScheduler.FaucetConfig faucetConfig = GopherFaucetScheduler.FaucetConfig.DEFAULT;
+        String faucetRate = System.getProperty(FAUCET_RATE_PROPERTY);
+        if (faucetRate != null) {
+            faucetConfig = faucetConfig.withInitialRate(Double.parseDouble(faucetRate));
+        }
+        this.faucetScheduler = new GopherFaucetScheduler(rpcClient, faucetConfig);
+        this.gopherAsyncApi = new GopherAsyncApiImpl(rpcClient, sequenceManager, faucetScheduler);
+        this.gopherApi = new GopherApiImpl(gopherAsyncApi);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::releaseResources, "gopher-bot-shutdown"));
+    }
+
+    /**
+     * 释放调度线程与连接：先让等待中的区块调度、水龙头领取失败，再关闭 rpcClient；可重复调用，JVM 退出时自动调用
+     */
+    public void releaseResources() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        blockScheduler.close();
+        faucetScheduler.close();
+        rpcClient.close();
     }
 
     @VortexaBotAPI(
@@ -61,6 +170,64 @@ public class GopherBot extends AbstractVortexaBot {
         });
     }
 
+    @VortexaBotAPI(
+            name = "Bulk init wallet",
+            catalogueName = GROUP_INIT,
+            catalogueOrder = 3,
+            description = "bulk mode of init wallet, generate wallets in parallel across cores and persist them per batch",
+            schedulerType = VortexaBotApiSchedulerType.NONE
+    )
+    public void bulkInitWallet() {
+        AppendLogger logger = getBotMethodInvokeContext().getLogger();
+        ReentrantLock pendingLock = new ReentrantLock();
+        List<FullAccountContext> pending = new ArrayList<>(BULK_WALLET_BATCH_SIZE);
+        AtomicInteger generated = new AtomicInteger();
+        try (GopherWalletGenerator generator = new GopherWalletGenerator()) {
+            forEachAccountContext((pageResult, i, fullAccountContext) -> {
+                if (fullAccountContext.getParam(GopherApiImpl.GOPHER_WALLET_KEY) != null) {
+                    return;
+                }
+                List<FullAccountContext> batch = null;
+                pendingLock.lock();
+                try {
+                    pending.add(fullAccountContext);
+                    if (pending.size() >= BULK_WALLET_BATCH_SIZE) {
+                        batch = new ArrayList<>(pending);
+                        pending.clear();
+                    }
+                } finally {
+                    pendingLock.unlock();
+                }
+                if (batch != null) {
+                    generated.addAndGet(generateWalletBatch(generator, batch, logger));
+                }
+            });
+            generated.addAndGet(generateWalletBatch(generator, pending, logger));
+        }
+        logger.info("bulk init wallet finish, generated[%s]".formatted(generated.get()));
+    }
+
+    /**
+     * 整批并行生成完再逐个写入账户参数，账户已有 mnemonic 时沿用
+     */
+    private static int generateWalletBatch(
+            GopherWalletGenerator generator, List<FullAccountContext> batch, AppendLogger logger
+    ) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<String> mnemonics = new ArrayList<>(batch.size());
+        for (FullAccountContext fullAccountContext : batch) {
+            mnemonics.add(fullAccountContext.getWallet() == null ? null : fullAccountContext.getWallet().getMnemonic());
+        }
+        List<WalletInfo> wallets = generator.generate(mnemonics);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).putParam(GopherApiImpl.GOPHER_WALLET_KEY, JSONObject.toJSONString(wallets.get(i)));
+        }
+        logger.info("bulk wallet batch persisted, size[%s]".formatted(batch.size()));
+        return batch.size();
+    }
+
     @VortexaBotAPI(
             name = "Faucet",
             catalogueName = GROUP_INIT,
@@ -75,6 +242,19 @@ public class GopherBot extends AbstractVortexaBot {
         });
     }
 
+    @VortexaBotAPI(
+            name = "Faucet async",
+            catalogueName = GROUP_INIT,
+            catalogueOrder = 4,
+            description = "params is [faucet times, retry times, max retry delay], claims of all accounts share one adaptive rate limit",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void faucetAsync(int faucetTimes, int retryTimes, int exceptionDelay) throws InterruptedException {
+        forEachAccountContextAsync((fullAccountContext, logger) -> gopherAsyncApi.faucet(
+                fullAccountContext, faucetTimes, retryTimes, exceptionDelay, logger
+        ));
+    }
+
     @VortexaBotAPI(
             name = "GOAI balance query",
             catalogueName = GROUP_QUERY,
@@ -122,6 +302,7 @@ public class GopherBot extends AbstractVortexaBot {
             schedulerType = VortexaBotApiSchedulerType.ALL
     )
     public void stake(int minPercent, int maxPercent) {
+        AtomicInteger scanned = new AtomicInteger();
         forEachAccountContext(new FullAccountContextScanner() {
             @Override
             public void scan(PageResult<AccountContext> pageResult, int i, FullAccountContext fullAccountContext) throws Exception {
@@ -129,6 +310,7 @@ public class GopherBot extends AbstractVortexaBot {
 
             @Override
             public Object scanWithResult(PageResult<AccountContext> page, int batchIdx, FullAccountContext fullAccountContext) throws Exception {
+                ensureCacheCapacity(scanned.incrementAndGet());
                 AppendLogger logger = getBotMethodInvokeContext().getLogger();
                 return gopherApi.stake(fullAccountContext, minPercent, maxPercent, logger);
             }
@@ -142,6 +324,7 @@ public class GopherBot extends AbstractVortexaBot {
             schedulerType = VortexaBotApiSchedulerType.ALL
     )
     public void unStake(int minPercent, int maxPercent) {
+        AtomicInteger scanned = new AtomicInteger();
         forEachAccountContext(new FullAccountContextScanner() {
             @Override
             public void scan(PageResult<AccountContext> pageResult, int i, FullAccountContext fullAccountContext) throws Exception {
@@ -149,6 +332,7 @@ public class GopherBot extends AbstractVortexaBot {
 
             @Override
             public Object scanWithResult(PageResult<AccountContext> page, int batchIdx, FullAccountContext fullAccountContext) throws Exception {
+                ensureCacheCapacity(scanned.incrementAndGet());
                 AppendLogger logger = getBotMethodInvokeContext().getLogger();
                 return gopherApi.unStake(fullAccountContext, minPercent, maxPercent, logger);
             }
@@ -162,6 +346,7 @@ public class GopherBot extends AbstractVortexaBot {
             schedulerType = VortexaBotApiSchedulerType.ALL
     )
     public void vote() {
+        AtomicInteger scanned = new AtomicInteger();
         forEachAccountContext(new FullAccountContextScanner() {
             @Override
             public void scan(PageResult<AccountContext> pageResult, int i, FullAccountContext fullAccountContext) throws Exception {
@@ -169,9 +354,213 @@ public class GopherBot extends AbstractVortexaBot {
 
             @Override
             public Object scanWithResult(PageResult<AccountContext> page, int batchIdx, FullAccountContext fullAccountContext) throws Exception {
+                ensureCacheCapacity(scanned.incrementAndGet());
                 AppendLogger logger = getBotMethodInvokeContext().getLogger();
                 return gopherApi.vote(fullAccountContext, logger);
             }
         });
     }
+
+    @VortexaBotAPI(
+            name = "Stake pipeline",
+            catalogueName = GROUP_OPERATE,
+            catalogueOrder = 4,
+            description = "pipeline mode of stake, query/prepare/sign/broadcast overlap across accounts",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void stakePipeline(int minPercent, int maxPercent) throws InterruptedException {
+        runTxPipeline(GopherTxPipeline.TxKind.STAKE, minPercent, maxPercent);
+    }
+
+    @VortexaBotAPI(
+            name = "Un stake pipeline",
+            catalogueName = GROUP_OPERATE,
+            catalogueOrder = 5,
+            description = "pipeline mode of un stake, query/prepare/sign/broadcast overlap across accounts",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void unStakePipeline(int minPercent, int maxPercent) throws InterruptedException {
+        runTxPipeline(GopherTxPipeline.TxKind.UN_STAKE, minPercent, maxPercent);
+    }
+
+    private void runTxPipeline(GopherTxPipeline.TxKind kind, int minPercent, int maxPercent) throws InterruptedException {
+        AppendLogger logger = getBotMethodInvokeContext().getLogger();
+        GopherTxPipeline pipeline = new GopherTxPipeline(
+                rpcClient, sequenceManager, kind, minPercent, maxPercent, GopherTxPipeline.PipelineConfig.DEFAULT
+        ).start();
+        try {
+            AtomicInteger scanned = new AtomicInteger();
+            forEachAccountContext((pageResult, i, fullAccountContext) -> {
+                ensureCacheCapacity(scanned.incrementAndGet());
+                pipeline.submit(fullAccountContext, getBotMethodInvokeContext().getLogger());
+            });
+        } finally {
+            pipeline.awaitCompletion();
+        }
+        logger.info("%s pipeline finish, success[%s] fail[%s]".formatted(
+                kind, pipeline.getSuccessCount(), pipeline.getFailCount()
+        ));
+    }
+
+    @VortexaBotAPI(
+            name = "GOAI balance query async",
+            catalogueName = GROUP_QUERY,
+            catalogueOrder = 3,
+            description = "non-blocking mode, keeps many accounts in flight with a small thread pool",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void goaiBalanceQueryAsync() throws InterruptedException {
+        forEachAccountContextAsync(gopherAsyncApi::goaiBalanceQuery);
+    }
+
+    @VortexaBotAPI(
+            name = "Portfolio snapshot async",
+            catalogueName = GROUP_QUERY,
+            catalogueOrder = 4,
+            description = "all denom balances of each account in one AllBalances query",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void portfolioSnapshotAsync() throws InterruptedException {
+        forEachAccountContextAsync(gopherAsyncApi::portfolioSnapshot);
+    }
+
+    @VortexaBotAPI(
+            name = "Http pool metrics",
+            catalogueName = GROUP_QUERY,
+            catalogueOrder = 5,
+            description = "per proxy http client pool statistics",
+            schedulerType = VortexaBotApiSchedulerType.NONE
+    )
+    public void httpPoolMetrics() {
+        getBotMethodInvokeContext().getLogger().info("http pool metrics, " + rpcClient.getHttpPool().getMetrics());
+    }
+
+    @VortexaBotAPI(
+            name = "Vote async",
+            catalogueName = GROUP_OPERATE,
+            catalogueOrder = 6,
+            description = "non-blocking mode, keeps many accounts in flight with a small thread pool",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void voteAsync() throws InterruptedException {
+        forEachAccountContextAsync(gopherAsyncApi::vote);
+    }
+
+    @VortexaBotAPI(
+            name = "Stake by block",
+            catalogueName = GROUP_OPERATE,
+            catalogueOrder = 7,
+            description = "params is [spread blocks, min percent, max percent], stake of all accounts spread evenly over the next N blocks",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void stakeByBlock(int spreadBlocks, int minPercent, int maxPercent) {
+        forEachAccountContextByBlock(spreadBlocks, (fullAccountContext, logger) -> gopherAsyncApi.stake(
+                fullAccountContext, minPercent, maxPercent, logger
+        ));
+    }
+
+    @VortexaBotAPI(
+            name = "Vote by block",
+            catalogueName = GROUP_OPERATE,
+            catalogueOrder = 8,
+            description = "params is [spread blocks], vote of all accounts spread evenly over the next N blocks",
+            schedulerType = VortexaBotApiSchedulerType.ALL
+    )
+    public void voteByBlock(int spreadBlocks) {
+        forEachAccountContextByBlock(spreadBlocks, gopherAsyncApi::vote);
+    }
+
+    /**
+     * 先收集全部账户，再交给 blockScheduler 按区块高度分批发起，等待全部完成；
+     * 超过截止时间仍未等到目标高度的账户直接记为失败，不会无限等待
+     */
+    private void forEachAccountContextByBlock(
+            int spreadBlocks,
+            BiFunction<FullAccountContext, AppendLogger, CompletableFuture<?>> operation
+    ) {
+        AppendLogger logger = getBotMethodInvokeContext().getLogger();
+        ReentrantLock contextsLock = new ReentrantLock();
+        List<FullAccountContext> contexts = new ArrayList<>();
+        Map<FullAccountContext, AppendLogger> loggers = new IdentityHashMap<>();
+        forEachAccountContext((pageResult, i, fullAccountContext) -> {
+            AppendLogger accountLogger = getBotMethodInvokeContext().getLogger();
+            contextsLock.lock();
+            try {
+                contexts.add(fullAccountContext);
+                loggers.put(fullAccountContext, accountLogger);
+            } finally {
+                contextsLock.unlock();
+            }
+        });
+
+        ensureCacheCapacity(contexts.size());
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failCount = new AtomicInteger();
+        List<CompletableFuture<Object>> futures = blockScheduler.spread(
+                contexts,
+                spreadBlocks,
+                GopherBlockScheduler.defaultDeadlineMillis(spreadBlocks),
+                fullAccountContext -> operation.apply(fullAccountContext, loggers.get(fullAccountContext)).<Object>thenApply(result -> result)
+        );
+        for (int i = 0; i < futures.size(); i++) {
+            AppendLogger accountLogger = loggers.get(contexts.get(i));
+            futures.get(i).handle((result, e) -> {
+                if (e != null) {
+                    failCount.incrementAndGet();
+                    accountLogger.error("block operate fail, " + e.getMessage());
+                } else {
+                    successCount.incrementAndGet();
+                }
+                return null;
+            }).join();
+        }
+        logger.info("block operate finish, accounts[%s] blocks[%s] success[%s] fail[%s]".formatted(
+                contexts.size(), spreadBlocks, successCount.get(), failCount.get()
+        ));
+    }
+
+    /**
+     * 密钥、钱包缓存按本轮账户数扩容
+     */
+    private static void ensureCacheCapacity(int accountCount) {
+        GopherKeyCache.getInstance().ensureCapacity(accountCount);
+        GopherWalletCache.getInstance().ensureCapacity(accountCount);
+    }
+
+    /**
+     * 扫描账户时只发起异步操作不等待结果，用信号量限制在途数量，全部提交后再等待完成
+     */
+    private void forEachAccountContextAsync(
+            BiFunction<FullAccountContext, AppendLogger, CompletableFuture<?>> operation
+    ) throws InterruptedException {
+        AppendLogger logger = getBotMethodInvokeContext().getLogger();
+        Semaphore inFlight = new Semaphore(ASYNC_MAX_IN_FLIGHT);
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failCount = new AtomicInteger();
+        AtomicInteger scanned = new AtomicInteger();
+        forEachAccountContext((pageResult, i, fullAccountContext) -> {
+            ensureCacheCapacity(scanned.incrementAndGet());
+            AppendLogger accountLogger = getBotMethodInvokeContext().getLogger();
+            inFlight.acquire();
+            CompletableFuture<?> future;
+            try {
+                future = operation.apply(fullAccountContext, accountLogger);
+            } catch (Exception e) {
+                inFlight.release();
+                throw e;
+            }
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    failCount.incrementAndGet();
+                    accountLogger.error("async operate fail, " + e.getMessage());
+                } else {
+                    successCount.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        });
+        inFlight.acquire(ASYNC_MAX_IN_FLIGHT);
+        inFlight.release(ASYNC_MAX_IN_FLIGHT);
+        logger.info("async operate finish, success[%s] fail[%s]".formatted(successCount.get(), failCount.get()));
+    }
 }
@@ -26,6 +26,8 @@ public interface GopherApi {
 
     Double stakedBalanceQuery(FullAccountContext fullAccountContext, AppendLogger logger) throws ExecutionException, InterruptedException;
 
+    Map<String, String> portfolioSnapshot(FullAccountContext fullAccountContext, AppendLogger logger) throws ExecutionException, InterruptedException;
+
     String stake(FullAccountContext fullAccountContext, int minPercent, int maxPercent, AppendLogger logger) throws IOException, ExecutionException, InterruptedException, UnreadableWalletException;
 
     String unStake(FullAccountContext fullAccountContext, int minPercent, int maxPercent, AppendLogger logger) throws ExecutionException, InterruptedException, IOException, UnreadableWalletException;
@@ -0,0 +1,43 @@
+package cn.com.vortexa.gopher.service;
+
+import cn.com.vortexa.base.util.log.AppendLogger;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.lang.Pair;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GopherApi 的非阻塞版本，所有操作都返回 CompletableFuture，网络往返期间不占用线程
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public interface GopherAsyncApi {
+
+    CompletableFuture<WalletInfo> autoGenerateGopherWallet(FullAccountContext fullAccountContext, AppendLogger logger);
+
+    CompletableFuture<Void> faucet(FullAccountContext fullAccountContext, int faucetTimes, int retryTimes, int exceptionDelay, AppendLogger logger);
+
+    CompletableFuture<Pair<Double, String>> balanceQuery(FullAccountContext fullAccountContext, String denom);
+
+    CompletableFuture<Double> queryStakedBalance(FullAccountContext fullAccountContext);
+
+    CompletableFuture<Double> goaiBalanceQuery(FullAccountContext fullAccountContext, AppendLogger logger);
+
+    CompletableFuture<Double> stakedBalanceQuery(FullAccountContext fullAccountContext, AppendLogger logger);
+
+    /**
+     * 一次 AllBalances 查询拿到全部 denom 余额，作为一个值保存
+     *
+     * @return denom -> 链上最小单位数量
+     */
+    CompletableFuture<Map<String, String>> portfolioSnapshot(FullAccountContext fullAccountContext, AppendLogger logger);
+
+    CompletableFuture<String> stake(FullAccountContext fullAccountContext, int minPercent, int maxPercent, AppendLogger logger);
+
+    CompletableFuture<String> unStake(FullAccountContext fullAccountContext, int minPercent, int maxPercent, AppendLogger logger);
+
+    CompletableFuture<Map<String, String>> vote(FullAccountContext fullAccountContext, AppendLogger logger);
+}
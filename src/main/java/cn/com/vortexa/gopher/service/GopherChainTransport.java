@@ -0,0 +1,64 @@
+package cn.com.vortexa.gopher.service;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.hutool.core.lang.Pair;
+import cosmos.base.query.v1beta1.Pagination;
+import cosmos.tx.v1beta1.ServiceOuterClass;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 链节点的查询 / 广播通道
+ * <p>
+ * 默认实现走 JSON-RPC abci_query，配置了 gRPC 地址时走 gRPC（HTTP/2 多路复用，二进制 protobuf）
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public interface GopherChainTransport extends AutoCloseable {
+
+    /**
+     * 查询单个 denom 余额
+     *
+     * @return 最小单位数量，余额不存在时为 0
+     */
+    CompletableFuture<Long> queryBalance(FullAccountContext fullAccountContext, String address, String denom);
+
+    /**
+     * 分页查询地址下所有 denom 的余额
+     */
+    CompletableFuture<cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesResponse> queryAllBalances(
+            FullAccountContext fullAccountContext, String address, Pagination.PageRequest pageRequest
+    );
+
+    /**
+     * 查询账户
+     *
+     * @return Pair(accountNumber, sequence)
+     */
+    CompletableFuture<Pair<Long, Long>> queryAccount(FullAccountContext fullAccountContext, String address);
+
+    /**
+     * 同步广播（CheckTx 后返回），code != 0 时以 GopherTxException 失败
+     *
+     * @return tx hash
+     */
+    CompletableFuture<String> broadcastTx(FullAccountContext fullAccountContext, String txBase64);
+
+    /**
+     * 模拟执行已签名的交易（cosmos.tx.v1beta1.Service/Simulate），不上链、不消耗 sequence
+     *
+     * @return gas_info 与执行产生的 events；交易注定失败时以 GopherTxException 失败
+     */
+    CompletableFuture<ServiceOuterClass.SimulateResponse> simulateTx(FullAccountContext fullAccountContext, byte[] txBytes);
+
+    /**
+     * 查询最新区块高度
+     */
+    CompletableFuture<Long> latestBlockHeight(FullAccountContext fullAccountContext);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,403 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.account.entity.Web3Wallet;
+import cn.com.vortexa.base.util.log.AppendLogger;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.gopher.service.GopherAsyncApi;
+import cn.com.vortexa.gopher.util.GopherAmount;
+import cn.com.vortexa.gopher.util.GopherCosmosSigner;
+import cn.com.vortexa.gopher.util.GopherKey;
+import cn.com.vortexa.gopher.util.GopherWalletUtil;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSONObject;
+import cosmos.base.v1beta1.CoinOuterClass;
+import cosmos.gov.v1beta1.Gov;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.wallet.UnreadableWalletException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.GOAI_BALANCE_KEY;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.GOAI_DELEGATED_BALANCE_KEY;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.GOPHER_WALLET_KEY;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.PORTFOLIO_KEY;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.STAKE_MIN_BALANCE;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.checkAndGetGopherWallet;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.randomStakeAmount;
+import static cn.com.vortexa.gopher.service.impl.GopherApiImpl.randomUnStakeAmount;
+
+/**
+ * 非阻塞实现，各步骤用 thenCompose 串起来，热路径上没有 .get()；派生密钥与签名交给 GopherRpcClient 的签名线程池
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+@Slf4j
+public class GopherAsyncApiImpl implements GopherAsyncApi {
+    private final GopherRpcClient rpcClient;
+
+    private final GopherSequenceManager sequenceManager;
+
+    private final GopherFaucetScheduler faucetScheduler;
+
+    public GopherAsyncApiImpl(GopherRpcClient rpcClient) {
+        this(rpcClient, new GopherSequenceManager(rpcClient));
+    }
+
+    public GopherAsyncApiImpl(GopherRpcClient rpcClient, GopherSequenceManager sequenceManager) {
+        this(rpcClient, sequenceManager, new GopherFaucetScheduler(rpcClient, GopherFaucetScheduler.FaucetConfig.DEFAULT));
+    }
+
+    public GopherAsyncApiImpl(
+            GopherRpcClient rpcClient, GopherSequenceManager sequenceManager, GopherFaucetScheduler faucetScheduler
+    ) {
+        this.rpcClient = rpcClient;
+        this.sequenceManager = sequenceManager;
+        this.faucetScheduler = faucetScheduler;
+    }
+
+    @Override
+    public CompletableFuture<WalletInfo> autoGenerateGopherWallet(FullAccountContext fullAccountContext, AppendLogger logger) {
+        try {
+            Object param = fullAccountContext.getParam(GOPHER_WALLET_KEY);
+            if (param != null) {
+                throw new IllegalArgumentException("gopher wallet already exist");
+            }
+            Web3Wallet wallet = fullAccountContext.getWallet();
+            WalletInfo gopherWallet;
+            if (wallet == null || StrUtil.isEmpty(wallet.getMnemonic())) {
+                gopherWallet = GopherWalletUtil.generateGopherWallet();
+            } else {
+                gopherWallet = GopherWalletUtil.generateGopherWalletFormMnemonic(wallet.getMnemonic());
+            }
+            fullAccountContext.putParam(GOPHER_WALLET_KEY, JSONObject.toJSONString(gopherWallet));
+            logger.info("gopher wallet generate success, address: " + gopherWallet.getAddress());
+            return CompletableFuture.completedFuture(gopherWallet);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> faucet(
+            FullAccountContext fullAccountContext,
+            int faucetTimes,
+            int retryTimes,
+            int exceptionDelay,
+            AppendLogger logger
+    ) {
+        WalletInfo walletInfo;
+        try {
+            walletInfo = checkAndGetGopherWallet(fullAccountContext);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int j = 0; j < faucetTimes; j++) {
+            int times = j;
+            chain = chain.thenCompose(v -> faucetOnce(
+                    fullAccountContext, walletInfo, times, faucetTimes, retryTimes, exceptionDelay, logger
+            ));
+        }
+        return chain;
+    }
+
+    @Override
+    public CompletableFuture<Pair<Double, String>> balanceQuery(FullAccountContext fullAccountContext, String denom) {
+        WalletInfo walletInfo;
+        try {
+            walletInfo = checkAndGetGopherWallet(fullAccountContext);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return rpcClient.balanceQuery(fullAccountContext, walletInfo, denom);
+    }
+
+    @Override
+    public CompletableFuture<Double> queryStakedBalance(FullAccountContext fullAccountContext) {
+        WalletInfo walletInfo;
+        try {
+            walletInfo = checkAndGetGopherWallet(fullAccountContext);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return rpcClient.queryStakedBalance(fullAccountContext, walletInfo).thenApply(totalDelegated -> {
+            fullAccountContext.putParam(GOAI_DELEGATED_BALANCE_KEY, totalDelegated.toDouble());
+            return totalDelegated.toDouble();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> goaiBalanceQuery(FullAccountContext fullAccountContext, AppendLogger logger) {
+        logger.info("Start GOAI balance query...");
+        return balanceQuery(fullAccountContext, "ugoai").thenApply(pair -> {
+            fullAccountContext.putParam(GOAI_BALANCE_KEY, pair.getKey());
+            logger.info("GOAI balance query success, " + pair);
+            return pair.getKey();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> stakedBalanceQuery(FullAccountContext fullAccountContext, AppendLogger logger) {
+        logger.info("Start delegated balance query...");
+        return queryStakedBalance(fullAccountContext).thenApply(totalDelegated -> {
+            logger.info("Total delegated: " + totalDelegated);
+            return totalDelegated;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> portfolioSnapshot(FullAccountContext fullAccountContext, AppendLogger logger) {
+        WalletInfo walletInfo;
+        try {
+            walletInfo = checkAndGetGopherWallet(fullAccountContext);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        logger.info("Start portfolio snapshot...");
+        return rpcClient.queryAllBalances(fullAccountContext, walletInfo).thenApply(coins -> {
+            Map<String, String> balances = new LinkedHashMap<>();
+            for (CoinOuterClass.Coin coin : coins) {
+                balances.put(coin.getDenom(), coin.getAmount());
+            }
+            JSONObject snapshot = new JSONObject();
+            snapshot.put("balances", balances);
+            snapshot.put("updatedAt", System.currentTimeMillis());
+            fullAccountContext.putParam(PORTFOLIO_KEY, snapshot.toJSONString());
+            logger.info("Portfolio snapshot success, " + balances);
+            return balances;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> stake(FullAccountContext fullAccountContext, int minPercent, int maxPercent, AppendLogger logger) {
+        WalletInfo walletInfo;
+        try {
+            walletInfo = checkAndGetGopherWallet(fullAccountContext);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return rpcClient.queryBalanceAmount(fullAccountContext, walletInfo, GopherRpcClient.ORIGIN_TOKEN_DENOM).thenCompose(balance -> {
+            if (balance.isLessThan(STAKE_MIN_BALANCE)) {
+                throw new IllegalArgumentException("No $GOAI balance, less than 1.1. " + balance);
+            }
+            GopherAmount stakeBalance = randomStakeAmount(balance, minPercent, maxPercent);
+
+            logger.info("Start stake..." + stakeBalance);
+            logger.debug("prepare stake tx and query account number and sequence...");
+            return signAndBroadcast(
+                    fullAccountContext,
+                    walletInfo,
+                    rpcClient.prepareStakeTx(fullAccountContext, walletInfo, stakeBalance),
+                    "stake",
+                    logger
+            );
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> unStake(FullAccountContext fullAccountContext, int minPercent, int maxPercent, AppendLogger logger) {
+        WalletInfo walletInfo;
+        try {
+            walletInfo = checkAndGetGopherWallet(fullAccountContext);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return rpcClient.queryStakedBalance(fullAccountContext, walletInfo).thenCompose(stakedBalance -> {
+            fullAccountContext.putParam(GOAI_DELEGATED_BALANCE_KEY, stakedBalance.toDouble());
+            if (stakedBalance.isLessThan(GopherAmount.ONE)) {
+                throw new IllegalArgumentException("No staked balance, less than 1. " + stakedBalance);
+            }
+            GopherAmount unStakeBalance = randomUnStakeAmount(stakedBalance, minPercent, maxPercent);
+
+            logger.info("Start un stake..." + unStakeBalance);
+            logger.debug("prepare un stake tx and query account number and sequence...");
+            return signAndBroadcast(
+                    fullAccountContext,
+                    walletInfo,
+                    rpcClient.prepareUnStakeTx(fullAccountContext, walletInfo, unStakeBalance),
+                    "un stake",
+                    logger
+            );
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> vote(FullAccountContext fullAccountContext, AppendLogger logger) {
+        return rpcClient.getActiveProposal(fullAccountContext).thenCompose(proposals -> {
+            if (CollUtil.isEmpty(proposals)) {
+                logger.warn("no proposal can vote...");
+                return CompletableFuture.completedFuture(Map.of());
+            }
+
+            WalletInfo walletInfo = checkAndGetGopherWallet(fullAccountContext);
+            List<String> proposalIds = proposals.stream().map(proposal -> proposal.getString("id")).toList();
+            logger.info("start vote...total: %s, %s".formatted(proposalIds.size(), proposalIds));
+            // 所有提案的 MsgVote 放进同一笔交易，一次签名、一次广播
+            return sequenceManager.acquire(fullAccountContext, walletInfo)
+                    .thenCompose(accountNumberAndSequence -> {
+                        GopherCosmosSigner signer;
+                        try {
+                            signer = buildVoteSigner(
+                                    walletInfo,
+                                    proposalIds,
+                                    accountNumberAndSequence.getKey(),
+                                    accountNumberAndSequence.getValue()
+                            );
+                        } catch (RuntimeException e) {
+                            sequenceManager.onTxFailed(walletInfo.getAddress(), accountNumberAndSequence.getValue(), e);
+                            return CompletableFuture.failedFuture(e);
+                        }
+                        return broadcastWithSequence(
+                                fullAccountContext,
+                                walletInfo.getAddress(),
+                                accountNumberAndSequence.getValue(),
+                                signer.messageTypeUrls(),
+                                () -> rpcClient.signTx(fullAccountContext, signer, () -> getKey(fullAccountContext, walletInfo))
+                        );
+                    })
+                    .handle((txHash, e) -> {
+                        if (e != null) {
+                            logger.error("vote %s fail, %s".formatted(proposalIds, unwrap(e).getMessage()));
+                            return Map.<String, String>of();
+                        }
+                        Map<String, String> voteResult = new HashMap<>();
+                        proposalIds.forEach(proposalId -> voteResult.put(proposalId, txHash));
+                        logger.debug("vote %s success, %s".formatted(proposalIds, txHash));
+                        return voteResult;
+                    });
+        });
+    }
+
+    private CompletableFuture<String> signAndBroadcast(
+            FullAccountContext fullAccountContext,
+            WalletInfo walletInfo,
+            CompletableFuture<GopherCosmosSigner> prepareTx,
+            String operate,
+            AppendLogger logger
+    ) {
+        // sequence 大多数时候由本地分配，prepare 完成后再领取，避免 prepare 失败时白白占用一个 sequence
+        return prepareTx.thenCompose(signer -> sequenceManager.acquire(fullAccountContext, walletInfo)
+                .thenCompose(accountNumberAndSequence -> {
+                    signer.accountNumber(accountNumberAndSequence.getKey())
+                            .sequence(accountNumberAndSequence.getValue());
+                    return broadcastWithSequence(
+                            fullAccountContext,
+                            walletInfo.getAddress(),
+                            signer.getSequence(),
+                            signer.messageTypeUrls(),
+                            () -> rpcClient.signTx(fullAccountContext, signer, () -> getKey(fullAccountContext, walletInfo)).thenApply(txBase64 -> {
+                                logger.debug("tx base 64 generate success, start broadcast...");
+                                return txBase64;
+                            })
+                    );
+                })
+                .thenApply(txHash -> {
+                    logger.info("%s success, amount[%s]-gasFee[%s] tx hash: %s".formatted(
+                            operate, signer.getAmount(), signer.getFeeAmount(), txHash
+                    ));
+                    return txHash;
+                }));
+    }
+
+    /**
+     * 用已分配的 sequence 签名（及模拟）并广播，结果（包括签名、模拟失败）反馈给 sequenceManager
+     */
+    private CompletableFuture<String> broadcastWithSequence(
+            FullAccountContext fullAccountContext,
+            String address,
+            long sequence,
+            List<String> typeUrls,
+            Supplier<CompletableFuture<String>> txBuilder
+    ) {
+        CompletableFuture<String> txBase64;
+        try {
+            txBase64 = txBuilder.get();
+        } catch (RuntimeException e) {
+            txBase64 = CompletableFuture.failedFuture(e);
+        }
+        return txBase64
+                .thenCompose(tx -> rpcClient.broadcastTxBase64(fullAccountContext, tx))
+                .whenComplete((txHash, e) -> {
+                    if (e == null) {
+                        sequenceManager.onTxSuccess(address, sequence);
+                    } else {
+                        sequenceManager.onTxFailed(address, sequence, e);
+                    }
+                })
+                // 开启确认时等到交易上链才算完成，DeliverTx 失败以异常结束
+                .thenCompose(txHash -> rpcClient.awaitConfirmation(txHash, typeUrls).thenApply(confirmation -> txHash));
+    }
+
+    private CompletableFuture<Void> faucetOnce(
+            FullAccountContext fullAccountContext,
+            WalletInfo walletInfo,
+            int times,
+            int faucetTimes,
+            int retryTimes,
+            int exceptionDelay,
+            AppendLogger logger
+    ) {
+        if (retryTimes <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.debug("start faucet[%s/%s]...".formatted(times + 1, faucetTimes));
+        // 令牌等待与重试退避都由 faucetScheduler 的定时线程驱动，不 sleep 线程
+        return faucetScheduler.claim(fullAccountContext, walletInfo, retryTimes, exceptionDelay)
+                .thenAccept(result -> logger.info("faucet success: " + result))
+                .exceptionally(e -> {
+                    log.error("faucet[%s/%s] error, %s".formatted(times + 1, faucetTimes, unwrap(e)));
+                    return null;
+                });
+    }
+
+    private GopherCosmosSigner buildVoteSigner(
+            WalletInfo walletInfo, List<String> proposalIds, Long accountNumber, Long sequence
+    ) {
+        GopherCosmosSigner signer = GopherCosmosSigner.builder()
+                .chainId(GopherRpcClient.CHAIN_ID);
+        for (String proposalId : proposalIds) {
+            signer.addMessage(GopherCosmosSigner.voteMsg(
+                    Long.parseLong(proposalId),
+                    walletInfo.getAddress(),
+                    RandomUtil.randomEle(
+                            List.of(Gov.VoteOption.VOTE_OPTION_YES, Gov.VoteOption.VOTE_OPTION_NO, Gov.VoteOption.VOTE_OPTION_ABSTAIN,  Gov.VoteOption.VOTE_OPTION_NO_WITH_VETO)
+                    )
+            ));
+        }
+        return signer
+                .accountNumber(accountNumber)
+                .sequence(sequence)
+                .gasPlan(rpcClient.getGasEstimator().plan(signer.messageTypeUrls()))
+                .feeDenom(GopherRpcClient.ORIGIN_TOKEN_DENOM);
+    }
+
+    static GopherKey getKey(FullAccountContext fullAccountContext, WalletInfo walletInfo) {
+        try {
+            return GopherApiImpl.getGopherKey(fullAccountContext, walletInfo);
+        } catch (UnreadableWalletException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
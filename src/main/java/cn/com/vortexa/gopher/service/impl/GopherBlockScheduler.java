@@ -0,0 +1,271 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 按区块高度调度账户操作
+ * <p>
+ * 定时查询最新高度（gRPC 走 GetLatestBlock），把一批账户的操作按序号均匀分配到接下来的 N 个区块，
+ * 观察到目标高度出块后才发起对应账户的操作，避免所有交易挤进同一个区块导致 mempool 拒绝与 sequence 竞争。
+ * 没有待执行操作时不查询高度；同一时刻最多一个高度查询在途。
+ * 每批操作带墙钟截止时间，到期仍未等到目标高度（节点停止出块、高度查询一直失败）的操作以 TimeoutException 失败，
+ * 已发起的操作由各自的请求 / 确认超时兜底
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+@Slf4j
+public class GopherBlockScheduler implements AutoCloseable {
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 1_000;
+
+    /**
+     * 预估出块间隔，只用于推算默认截止时间
+     */
+    public static final long DEFAULT_BLOCK_TIME_MILLIS = 6_000;
+
+    /**
+     * 默认截止时间在分散区块数之外额外容忍的区块数
+     */
+    public static final int DEFAULT_DEADLINE_SLACK_BLOCKS = 10;
+
+    /**
+     * @param start   发起操作并把结果写回调用方的 future
+     * @param result  调用方的 future
+     * @param claimed 发起、超时、关闭三者只有一个能抢到
+     */
+    private record BlockTask(
+            FullAccountContext fullAccountContext, Runnable start, CompletableFuture<?> result, AtomicBoolean claimed
+    ) {
+        /**
+         * @return 是否由本次调用结束了该操作
+         */
+        private boolean fail(Throwable e) {
+            if (!claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            result.completeExceptionally(e);
+            return true;
+        }
+    }
+
+    private final GopherRpcClient rpcClient;
+    private final ScheduledExecutorService timer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableMap<Long, List<BlockTask>> tasksByHeight = new TreeMap<>();
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+
+    private volatile long latestHeight = -1;
+
+    public GopherBlockScheduler(GopherRpcClient rpcClient, long pollIntervalMillis) {
+        this.rpcClient = rpcClient;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gopher-block-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 默认截止时间：(spreadBlocks + DEFAULT_DEADLINE_SLACK_BLOCKS) 个预估出块间隔
+     */
+    public static long defaultDeadlineMillis(int spreadBlocks) {
+        return (Math.max(1, spreadBlocks) + (long) DEFAULT_DEADLINE_SLACK_BLOCKS) * DEFAULT_BLOCK_TIME_MILLIS;
+    }
+
+    public <T> List<CompletableFuture<T>> spread(
+            List<FullAccountContext> contexts,
+            int spreadBlocks,
+            Function<FullAccountContext, CompletableFuture<T>> operation
+    ) {
+        return spread(contexts, spreadBlocks, defaultDeadlineMillis(spreadBlocks), operation);
+    }
+
+    /**
+     * 把账户操作均匀分散到当前高度之后的 spreadBlocks 个区块，第 i 个账户在高度 h + 1 + i * spreadBlocks / size 出块后发起
+     *
+     * @param deadlineMillis 从调用起算，到期仍未发起的操作以 TimeoutException 失败并移出队列
+     * @return 与 contexts 一一对应的操作结果
+     */
+    public <T> List<CompletableFuture<T>> spread(
+            List<FullAccountContext> contexts,
+            int spreadBlocks,
+            long deadlineMillis,
+            Function<FullAccountContext, CompletableFuture<T>> operation
+    ) {
+        List<CompletableFuture<T>> results = new ArrayList<>(contexts.size());
+        if (contexts.isEmpty()) {
+            return results;
+        }
+        int blocks = Math.max(1, spreadBlocks);
+        List<BlockTask> tasks = new ArrayList<>(contexts.size());
+        for (FullAccountContext fullAccountContext : contexts) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            results.add(result);
+            tasks.add(new BlockTask(fullAccountContext, () -> {
+                try {
+                    operation.apply(fullAccountContext).whenComplete((value, e) -> {
+                        if (e != null) {
+                            result.completeExceptionally(GopherAsyncApiImpl.unwrap(e));
+                        } else {
+                            result.complete(value);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }, result, new AtomicBoolean(false)));
+        }
+        timer.schedule(() -> expire(tasks, deadlineMillis), deadlineMillis, TimeUnit.MILLISECONDS);
+
+        rpcClient.latestBlockHeight(contexts.get(0)).whenComplete((height, e) -> {
+            if (e != null) {
+                Throwable cause = GopherAsyncApiImpl.unwrap(e);
+                tasks.forEach(task -> task.fail(cause));
+                return;
+            }
+            lock.lock();
+            try {
+                for (int i = 0; i < tasks.size(); i++) {
+                    BlockTask task = tasks.get(i);
+                    if (task.claimed().get()) {
+                        // 起始高度返回前已超时
+                        continue;
+                    }
+                    long target = height + 1 + (long) i * blocks / tasks.size();
+                    tasksByHeight.computeIfAbsent(target, k -> new ArrayList<>()).add(task);
+                }
+            } finally {
+                lock.unlock();
+            }
+            log.debug("spread [{}] operations over blocks ({}, {}]", tasks.size(), height, height + blocks);
+        });
+        return results;
+    }
+
+    public long getLatestHeight() {
+        return latestHeight;
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return tasksByHeight.values().stream().mapToInt(List::size).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        List<BlockTask> remaining = new ArrayList<>();
+        lock.lock();
+        try {
+            tasksByHeight.values().forEach(remaining::addAll);
+            tasksByHeight.clear();
+        } finally {
+            lock.unlock();
+        }
+        remaining.forEach(task -> task.fail(new IllegalStateException("block scheduler closed")));
+    }
+
+    /**
+     * 截止时间到，让这一批里还没发起的操作失败，并从待执行队列里移除
+     */
+    private void expire(List<BlockTask> tasks, long deadlineMillis) {
+        TimeoutException timeout = new TimeoutException(
+                "block operation not started within %s ms, latest height %s".formatted(deadlineMillis, latestHeight)
+        );
+        int expired = 0;
+        for (BlockTask task : tasks) {
+            if (task.fail(timeout)) {
+                expired++;
+            }
+        }
+        if (expired == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            tasksByHeight.values().removeIf(list -> {
+                list.removeIf(task -> task.claimed().get());
+                return list.isEmpty();
+            });
+        } finally {
+            lock.unlock();
+        }
+        log.warn("[{}] block operations expired after {} ms, latest height {}", expired, deadlineMillis, latestHeight);
+    }
+
+    private void poll() {
+        FullAccountContext fullAccountContext;
+        lock.lock();
+        try {
+            if (tasksByHeight.isEmpty()) {
+                return;
+            }
+            // 高度查询借用一个等待中账户的代理
+            fullAccountContext = tasksByHeight.firstEntry().getValue().get(0).fullAccountContext();
+        } finally {
+            lock.unlock();
+        }
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        rpcClient.latestBlockHeight(fullAccountContext).whenComplete((height, e) -> {
+            try {
+                if (e != null) {
+                    log.warn("query latest block height fail, {}", GopherAsyncApiImpl.unwrap(e).getMessage());
+                } else {
+                    onHeight(height);
+                }
+            } finally {
+                polling.set(false);
+            }
+        });
+    }
+
+    private void onHeight(long height) {
+        if (height <= latestHeight) {
+            return;
+        }
+        latestHeight = height;
+        List<BlockTask> due = new ArrayList<>();
+        lock.lock();
+        try {
+            NavigableMap<Long, List<BlockTask>> reached = tasksByHeight.headMap(height, true);
+            for (Map.Entry<Long, List<BlockTask>> entry : reached.entrySet()) {
+                due.addAll(entry.getValue());
+            }
+            reached.clear();
+        } finally {
+            lock.unlock();
+        }
+        if (!due.isEmpty()) {
+            log.debug("block [{}] reached, start [{}] operations", height, due.size());
+        }
+        for (BlockTask task : due) {
+            if (task.claimed().compareAndSet(false, true)) {
+                task.start().run();
+            }
+        }
+    }
+}
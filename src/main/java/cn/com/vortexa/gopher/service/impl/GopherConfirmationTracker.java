@@ -0,0 +1,247 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.gopher.util.GopherGasEstimator;
+import cn.com.vortexa.gopher.util.GopherLruCache;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 交易上链确认
+ * <p>
+ * 整个 bot 只保持一条到节点 /websocket 的订阅（tm.event='Tx'），每个上链交易的事件按 hash 在并发索引里查找待确认的 future，
+ * 不按 hash 轮询 tx 接口；事件先于 track 到达时暂存在最近确认缓存里。连接断开后按指数退避重连，
+ * 断线期间错过的交易由超时兜底
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+@Slf4j
+public class GopherConfirmationTracker implements AutoCloseable {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 60_000;
+
+    private static final String SUBSCRIBE_QUERY = "tm.event='Tx'";
+    private static final int RECENT_CAPACITY = 10_000;
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+    /**
+     * 上链结果，code != 0 表示 DeliverTx 执行失败（sequence 与手续费仍被消耗）
+     */
+    public record TxConfirmation(String txHash, long height, int code, String codespace, String log, long gasWanted, long gasUsed) {
+        public boolean isSuccess() {
+            return code == 0;
+        }
+    }
+
+    private record Pending(CompletableFuture<TxConfirmation> future, List<String> typeUrls, long deadlineNanos) {
+    }
+
+    private final URI url;
+    private final HttpClient httpClient;
+    private final GopherGasEstimator gasEstimator;
+    private final ScheduledExecutorService timer;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final GopherLruCache<String, TxConfirmation> recent = new GopherLruCache<>(RECENT_CAPACITY, null);
+
+    private volatile WebSocket webSocket;
+    private volatile boolean closed = false;
+    private volatile long reconnectDelayMillis = 500;
+
+    /**
+     * @param url          节点 websocket 地址，如 wss://host/websocket
+     * @param gasEstimator 成功上链交易的 gas_used 记入估算器，可为空
+     */
+    public GopherConfirmationTracker(String url, HttpClient httpClient, GopherGasEstimator gasEstimator) {
+        this.url = URI.create(url);
+        this.httpClient = httpClient;
+        this.gasEstimator = gasEstimator;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gopher-confirmation-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.scheduleWithFixedDelay(this::sweepExpired, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        connect();
+    }
+
+    /**
+     * 等待交易上链
+     *
+     * @param typeUrls 交易内消息的 type url，用于学习 gas，可为空
+     */
+    public CompletableFuture<TxConfirmation> track(String txHash, List<String> typeUrls, long timeoutMillis) {
+        String hash = txHash.toUpperCase();
+        TxConfirmation confirmed = recent.get(hash);
+        if (confirmed != null) {
+            recordGas(confirmed, typeUrls);
+            return CompletableFuture.completedFuture(confirmed);
+        }
+        CompletableFuture<TxConfirmation> future = new CompletableFuture<>();
+        pending.put(hash, new Pending(future, typeUrls, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)));
+        // 放入索引前事件刚好到达的情况
+        confirmed = recent.get(hash);
+        if (confirmed != null) {
+            complete(confirmed);
+        }
+        return future;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public boolean isConnected() {
+        return webSocket != null;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "close");
+        }
+        timer.shutdownNow();
+        pending.values().forEach(p -> p.future().completeExceptionally(new IllegalStateException("confirmation tracker closed")));
+        pending.clear();
+    }
+
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        httpClient.newWebSocketBuilder()
+                .buildAsync(url, new Listener())
+                .whenComplete((ws, e) -> {
+                    if (e != null) {
+                        log.warn("confirmation websocket connect fail, {}", e.getMessage());
+                        scheduleReconnect();
+                        return;
+                    }
+                    webSocket = ws;
+                    reconnectDelayMillis = 500;
+                    JSONObject subscribe = new JSONObject();
+                    subscribe.put("jsonrpc", "2.0");
+                    subscribe.put("id", 1);
+                    subscribe.put("method", "subscribe");
+                    subscribe.put("params", Map.of("query", SUBSCRIBE_QUERY));
+                    ws.sendText(subscribe.toJSONString(), true);
+                });
+    }
+
+    private void scheduleReconnect() {
+        webSocket = null;
+        if (closed) {
+            return;
+        }
+        long delay = reconnectDelayMillis;
+        reconnectDelayMillis = Math.min(MAX_RECONNECT_DELAY_MILLIS, reconnectDelayMillis * 2);
+        timer.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {"result": {"data": {"value": {"TxResult": {"height", "result": {...}}}}, "events": {"tx.hash": [...]}}}
+     */
+    private void onMessage(String text) {
+        JSONObject message = JSONObject.parseObject(text);
+        JSONObject result = message.getJSONObject("result");
+        if (result == null || result.getJSONObject("events") == null) {
+            // 订阅应答或心跳
+            return;
+        }
+        JSONArray hashes = result.getJSONObject("events").getJSONArray("tx.hash");
+        JSONObject txResult = result.getJSONObject("data").getJSONObject("value").getJSONObject("TxResult");
+        if (hashes == null || hashes.isEmpty() || txResult == null) {
+            return;
+        }
+        JSONObject execResult = txResult.getJSONObject("result");
+        TxConfirmation confirmation = new TxConfirmation(
+                hashes.getString(0).toUpperCase(),
+                txResult.getLongValue("height"),
+                execResult.getIntValue("code"),
+                execResult.getString("codespace"),
+                execResult.getString("log"),
+                execResult.getLongValue("gas_wanted"),
+                execResult.getLongValue("gas_used")
+        );
+        if (!complete(confirmation)) {
+            // 先写缓存再查一次索引，与 track 的两次检查配合，不会漏掉并发注册的 hash
+            recent.put(confirmation.txHash(), confirmation);
+            complete(confirmation);
+        }
+    }
+
+    private boolean complete(TxConfirmation confirmation) {
+        Pending p = pending.remove(confirmation.txHash());
+        if (p == null) {
+            return false;
+        }
+        recordGas(confirmation, p.typeUrls());
+        p.future().complete(confirmation);
+        return true;
+    }
+
+    private void recordGas(TxConfirmation confirmation, List<String> typeUrls) {
+        if (gasEstimator != null && typeUrls != null && confirmation.isSuccess()) {
+            gasEstimator.record(typeUrls, confirmation.gasUsed());
+        }
+    }
+
+    private void sweepExpired() {
+        long now = System.nanoTime();
+        pending.forEach((hash, p) -> {
+            if (now - p.deadlineNanos() > 0 && pending.remove(hash, p)) {
+                p.future().completeExceptionally(new TimeoutException("tx [%s] not confirmed in time".formatted(hash)));
+            }
+        });
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                String text = buffer.toString();
+                buffer.setLength(0);
+                try {
+                    onMessage(text);
+                } catch (Exception e) {
+                    log.warn("confirmation event parse fail, {}", e.getMessage());
+                }
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            log.warn("confirmation websocket closed, [{}] {}", statusCode, reason);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            log.warn("confirmation websocket error, {}", error.getMessage());
+            scheduleReconnect();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.util.RandomUtil;
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 所有账户共用的水龙头领取调度器
+ * <p>
+ * 领取前先从共享令牌桶取令牌，桶速率按观察到的结果自适应：成功时加性增加，遇到 429 时乘性减半（AIMD），
+ * 同一个冷却窗口内的多次 429 只减一次；失败重试按 decorrelated jitter 指数退避，等待全部挂在一个定时线程上，不占用工作线程。
+ * <p>
+ * 令牌不足的领取按 FIFO 排队，不预支令牌；定时器只按当前速率算出下一个令牌的到达时间，速率变化时立即重新计算，
+ * 已排队的领取也跟着新速率放行
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherFaucetScheduler implements AutoCloseable {
+
+    /**
+     * @param initialRate       初始速率，次/秒
+     * @param minRate           429 时速率下限
+     * @param maxRate           速率上限
+     * @param burst             令牌桶容量
+     * @param increasePerSecond 持续成功时速率每秒约增加的量
+     * @param baseDelayMillis   重试退避基数
+     * @param cooldownMillis    两次降速的最小间隔
+     */
+    public record FaucetConfig(
+            double initialRate,
+            double minRate,
+            double maxRate,
+            int burst,
+            double increasePerSecond,
+            long baseDelayMillis,
+            long cooldownMillis
+    ) {
+        public static final FaucetConfig DEFAULT = new FaucetConfig(2, 0.2, 20, 5, 0.2, 500, 1000);
+
+        public FaucetConfig withInitialRate(double initialRate) {
+            return new FaucetConfig(
+                    initialRate, minRate, Math.max(maxRate, initialRate), burst,
+                    increasePerSecond, baseDelayMillis, cooldownMillis
+            );
+        }
+    }
+
+    private final GopherRpcClient rpcClient;
+    private final FaucetConfig config;
+    private final ScheduledExecutorService timer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private ScheduledFuture<?> wakeup;
+
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+    private final AtomicLong failCount = new AtomicLong();
+
+    public GopherFaucetScheduler(GopherRpcClient rpcClient, FaucetConfig config) {
+        this.rpcClient = rpcClient;
+        this.config = config;
+        this.rate = config.initialRate();
+        this.tokens = config.burst();
+        this.lastRefillNanos = System.nanoTime();
+        this.lastDecreaseNanos = lastRefillNanos - TimeUnit.MILLISECONDS.toNanos(config.cooldownMillis());
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gopher-faucet-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 领取一次，失败时最多重试到 retryTimes 次
+     *
+     * @param maxDelayMillis 单次退避的上限
+     */
+    public CompletableFuture<JSONObject> claim(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo, int retryTimes, long maxDelayMillis
+    ) {
+        return attempt(fullAccountContext, walletInfo, 0, retryTimes, maxDelayMillis, config.baseDelayMillis());
+    }
+
+    public double getRate() {
+        lock.lock();
+        try {
+            return rate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    public long getFailCount() {
+        return failCount.get();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        List<CompletableFuture<Void>> pending;
+        lock.lock();
+        try {
+            pending = new ArrayList<>(waiters);
+            waiters.clear();
+        } finally {
+            lock.unlock();
+        }
+        pending.forEach(future -> future.completeExceptionally(new IllegalStateException("faucet scheduler closed")));
+    }
+
+    private CompletableFuture<JSONObject> attempt(
+            FullAccountContext fullAccountContext,
+            WalletInfo walletInfo,
+            int retry,
+            int retryTimes,
+            long maxDelayMillis,
+            long prevDelayMillis
+    ) {
+        return acquire()
+                .thenCompose(v -> rpcClient.faucet(fullAccountContext, walletInfo))
+                .thenApply(result -> {
+                    onSuccess();
+                    return result;
+                })
+                .exceptionallyCompose(e -> {
+                    Throwable cause = GopherAsyncApiImpl.unwrap(e);
+                    if (isRateLimited(cause)) {
+                        onRateLimited();
+                    } else {
+                        failCount.incrementAndGet();
+                    }
+                    if (retry + 1 >= retryTimes) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    long backoff = nextDelay(prevDelayMillis, maxDelayMillis);
+                    return delay(backoff).thenCompose(v -> attempt(
+                            fullAccountContext, walletInfo, retry + 1, retryTimes, maxDelayMillis, backoff
+                    ));
+                });
+    }
+
+    /**
+     * 没有排队且有令牌时直接放行，否则排到队尾，由 {@link #release()} 按当前速率放行
+     */
+    private CompletableFuture<Void> acquire() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            if (waiters.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            waiters.addLast(future);
+            if (wakeup == null) {
+                scheduleWakeup();
+            }
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按当前令牌数放行队首的领取，还有排队时按当前速率约定下一次放行
+     */
+    private void release() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            wakeup = null;
+            refill(System.nanoTime());
+            while (!waiters.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                granted.add(waiters.pollFirst());
+            }
+            if (!waiters.isEmpty()) {
+                scheduleWakeup();
+            }
+        } finally {
+            lock.unlock();
+        }
+        granted.forEach(future -> future.complete(null));
+    }
+
+    /**
+     * 调用方持有 lock；已有定时任务时先取消，按当前速率重新计算
+     */
+    private void scheduleWakeup() {
+        if (wakeup != null) {
+            wakeup.cancel(false);
+        }
+        long waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / rate * 1_000_000_000L);
+        wakeup = timer.schedule(this::release, waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 调用方持有 lock，速率变化后让排队中的领取按新速率等待
+     */
+    private void onRateChanged() {
+        if (!waiters.isEmpty()) {
+            scheduleWakeup();
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(config.burst(), tokens + (now - lastRefillNanos) / 1_000_000_000.0 * rate);
+        lastRefillNanos = now;
+    }
+
+    private void onSuccess() {
+        successCount.incrementAndGet();
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            // 每秒约 rate 次成功，每次加 increasePerSecond / rate
+            rate = Math.min(config.maxRate(), rate + config.increasePerSecond() / rate);
+            onRateChanged();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onRateLimited() {
+        rateLimitedCount.incrementAndGet();
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos < TimeUnit.MILLISECONDS.toNanos(config.cooldownMillis())) {
+                return;
+            }
+            refill(now);
+            rate = Math.max(config.minRate(), rate / 2);
+            lastDecreaseNanos = now;
+            onRateChanged();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * decorrelated jitter：min(cap, random(base, prev * 3))
+     */
+    private long nextDelay(long prevDelayMillis, long maxDelayMillis) {
+        long base = Math.min(config.baseDelayMillis(), maxDelayMillis);
+        long upper = Math.max(base + 1, Math.min(maxDelayMillis, prevDelayMillis * 3));
+        return Math.min(maxDelayMillis, RandomUtil.randomLong(base, upper));
+    }
+
+    private CompletableFuture<Void> delay(long delayMillis) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        timer.schedule(() -> future.complete(null), delayMillis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * 只认 HTTP 429 状态码，不匹配异常消息里的文本（hash、地址、金额中也可能出现 429）
+     */
+    static boolean isRateLimited(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof GopherHttpStatusException statusException) {
+                return statusException.isTooManyRequests();
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
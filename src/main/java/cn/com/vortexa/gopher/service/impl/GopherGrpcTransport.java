@@ -0,0 +1,278 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.common.entity.ProxyInfo;
+import cn.com.vortexa.gopher.service.GopherChainTransport;
+import cn.com.vortexa.gopher.util.GopherProtoDecoder;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.StrUtil;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import cosmos.auth.v1beta1.Auth;
+import cosmos.base.abci.v1beta1.Abci;
+import cosmos.base.query.v1beta1.Pagination;
+import cosmos.tx.v1beta1.ServiceGrpc;
+import cosmos.tx.v1beta1.ServiceOuterClass;
+import io.grpc.HttpConnectProxiedSocketAddress;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import java.net.InetSocketAddress;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * gRPC 通道，请求响应都是二进制 protobuf
+ * <p>
+ * 每个账户代理（以及直连）一条 HTTP/2 连接，经 HTTP CONNECT 走该代理，同一代理下的账户在这条连接上多路复用，
+ * 出口 IP 与 hub / JSON-RPC 请求一致；代理很多时连接数随之增加。gRPC 只在配置了节点地址时启用。
+ * 与 JSON-RPC 共用同一个 {@link GopherRequestLimiter}，在途请求数上限不变
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherGrpcTransport implements GopherChainTransport {
+    /**
+     * 节点执行交易失败时返回的 gRPC 状态，其余状态视为连接问题
+     */
+    private static final Set<Status.Code> TX_REJECTED_CODES = Set.of(
+            Status.Code.UNKNOWN,
+            Status.Code.INVALID_ARGUMENT,
+            Status.Code.FAILED_PRECONDITION,
+            Status.Code.OUT_OF_RANGE,
+            Status.Code.NOT_FOUND
+    );
+
+    private static final long DEFAULT_DEADLINE_MILLIS = 30_000;
+
+    private final String target;
+    private final boolean tls;
+    private final GopherRequestLimiter limiter;
+    private final long deadlineMillis;
+
+    /**
+     * 代理 key -> 连接与 stub
+     */
+    private final Map<String, Stubs> stubsByProxy = new ConcurrentHashMap<>();
+
+    /**
+     * @param target host:port
+     * @param tls    是否走 TLS
+     */
+    public GopherGrpcTransport(String target, boolean tls, GopherRequestLimiter limiter) {
+        this(target, tls, limiter, DEFAULT_DEADLINE_MILLIS);
+    }
+
+    public GopherGrpcTransport(String target, boolean tls, GopherRequestLimiter limiter, long deadlineMillis) {
+        this.target = target;
+        this.tls = tls;
+        this.limiter = limiter;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    @Override
+    public CompletableFuture<Long> queryBalance(
+            FullAccountContext fullAccountContext, String address, String denom
+    ) {
+        cosmos.bank.v1beta1.QueryOuterClass.QueryBalanceRequest request = cosmos.bank.v1beta1.QueryOuterClass.QueryBalanceRequest.newBuilder()
+                .setAddress(address)
+                .setDenom(denom)
+                .build();
+        return call(() -> stubs(fullAccountContext).bank().withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS).balance(request))
+                .thenApply(response -> GopherProtoDecoder.parseAmount(response.getBalance().getAmount()));
+    }
+
+    @Override
+    public CompletableFuture<cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesResponse> queryAllBalances(
+            FullAccountContext fullAccountContext, String address, Pagination.PageRequest pageRequest
+    ) {
+        cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesRequest request = cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesRequest.newBuilder()
+                .setAddress(address)
+                .setPagination(pageRequest)
+                .build();
+        return call(() -> stubs(fullAccountContext).bank().withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS).allBalances(request));
+    }
+
+    @Override
+    public CompletableFuture<Pair<Long, Long>> queryAccount(
+            FullAccountContext fullAccountContext, String address
+    ) {
+        cosmos.auth.v1beta1.QueryOuterClass.QueryAccountRequest request = cosmos.auth.v1beta1.QueryOuterClass.QueryAccountRequest.newBuilder()
+                .setAddress(address)
+                .build();
+        return call(() -> stubs(fullAccountContext).auth().withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS).account(request))
+                .thenApply(response -> {
+                    try {
+                        Auth.BaseAccount account = Auth.BaseAccount.parseFrom(response.getAccount().getValue());
+                        return Pair.of(account.getAccountNumber(), account.getSequence());
+                    } catch (InvalidProtocolBufferException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> broadcastTx(FullAccountContext fullAccountContext, String txBase64) {
+        ServiceOuterClass.BroadcastTxRequest request = ServiceOuterClass.BroadcastTxRequest.newBuilder()
+                .setTxBytes(ByteString.copyFrom(Base64.getDecoder().decode(txBase64)))
+                .setMode(ServiceOuterClass.BroadcastMode.BROADCAST_MODE_SYNC)
+                .build();
+        return call(() -> stubs(fullAccountContext).tx().withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS).broadcastTx(request))
+                .thenApply(response -> {
+                    Abci.TxResponse txResponse = response.getTxResponse();
+                    if (txResponse.getCode() != 0) {
+                        throw new GopherTxException(
+                                txResponse.getCode(), txResponse.getCodespace(), txResponse.getRawLog(), txResponse.getTxhash()
+                        );
+                    }
+                    return txResponse.getTxhash();
+                });
+    }
+
+    @Override
+    public CompletableFuture<ServiceOuterClass.SimulateResponse> simulateTx(
+            FullAccountContext fullAccountContext, byte[] txBytes
+    ) {
+        ServiceOuterClass.SimulateRequest request = ServiceOuterClass.SimulateRequest.newBuilder()
+                .setTxBytes(ByteString.copyFrom(txBytes))
+                .build();
+        return call(() -> stubs(fullAccountContext).tx().withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS).simulate(request))
+                .exceptionally(e -> {
+                    throw simulateError(e);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Long> latestBlockHeight(FullAccountContext fullAccountContext) {
+        cosmos.base.tendermint.v1beta1.Query.GetLatestBlockRequest request = cosmos.base.tendermint.v1beta1.Query.GetLatestBlockRequest.getDefaultInstance();
+        return call(() -> stubs(fullAccountContext).tendermint().withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS).getLatestBlock(request))
+                .thenApply(response -> response.getBlock().getHeader().getHeight());
+    }
+
+    public int getChannelCount() {
+        return stubsByProxy.size();
+    }
+
+    @Override
+    public void close() {
+        stubsByProxy.values().forEach(stubs -> stubs.channel().shutdown());
+        try {
+            for (Stubs stubs : stubsByProxy.values()) {
+                if (!stubs.channel().awaitTermination(5, TimeUnit.SECONDS)) {
+                    stubs.channel().shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            stubsByProxy.values().forEach(stubs -> stubs.channel().shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+        stubsByProxy.clear();
+    }
+
+    private Stubs stubs(FullAccountContext fullAccountContext) {
+        ProxyInfo proxy = fullAccountContext == null ? null : fullAccountContext.getProxy();
+        return stubsByProxy.computeIfAbsent(
+                GopherHttpClientPool.proxyKey(proxy), k -> Stubs.of(buildChannel(target, tls, proxy))
+        );
+    }
+
+    /**
+     * Simulate 执行失败时节点以 UNKNOWN / INVALID_ARGUMENT 等状态返回 ABCI 错误日志，转成 GopherTxException，
+     * 与 JSON-RPC 通道一致；连接类状态（UNAVAILABLE、DEADLINE_EXCEEDED 等）原样抛出，仍按网络异常处理
+     */
+    static RuntimeException simulateError(Throwable e) {
+        Throwable cause = GopherAsyncApiImpl.unwrap(e);
+        if (cause instanceof StatusRuntimeException statusException
+                && TX_REJECTED_CODES.contains(statusException.getStatus().getCode())) {
+            String description = statusException.getStatus().getDescription();
+            // gRPC 状态里没有 ABCI code，sequence 不匹配按描述识别，供 GopherSequenceManager 解析期望值
+            boolean wrongSequence = description != null && description.contains(GopherTxException.WRONG_SEQUENCE_MESSAGE);
+            return new GopherTxException(
+                    wrongSequence ? GopherTxException.CODE_WRONG_SEQUENCE : GopherTxException.CODE_UNKNOWN,
+                    wrongSequence ? "sdk" : null,
+                    description,
+                    null
+            );
+        }
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<ListenableFuture<T>> call) {
+        return limiter.submit(() -> toCompletableFuture(call.get()));
+    }
+
+    private static ManagedChannel buildChannel(String target, boolean tls, ProxyInfo proxy) {
+        ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forTarget(target)
+                .keepAliveTime(30, TimeUnit.SECONDS)
+                .keepAliveWithoutCalls(true)
+                .maxInboundMessageSize(16 * 1024 * 1024);
+        if (proxy != null && StrUtil.isNotBlank(proxy.getHost())) {
+            InetSocketAddress proxyAddress = new InetSocketAddress(proxy.getHost(), proxy.getPort());
+            builder.proxyDetector(targetAddress -> HttpConnectProxiedSocketAddress.newBuilder()
+                    .setTargetAddress((InetSocketAddress) targetAddress)
+                    .setProxyAddress(proxyAddress)
+                    .setUsername(StrUtil.emptyToNull(proxy.getUsername()))
+                    .setPassword(StrUtil.emptyToNull(proxy.getPassword()))
+                    .build());
+        }
+        if (tls) {
+            builder.useTransportSecurity();
+        } else {
+            builder.usePlaintext();
+        }
+        return builder.build();
+    }
+
+    private record Stubs(
+            ManagedChannel channel,
+            cosmos.bank.v1beta1.QueryGrpc.QueryFutureStub bank,
+            cosmos.auth.v1beta1.QueryGrpc.QueryFutureStub auth,
+            ServiceGrpc.ServiceFutureStub tx,
+            cosmos.base.tendermint.v1beta1.ServiceGrpc.ServiceFutureStub tendermint
+    ) {
+        static Stubs of(ManagedChannel channel) {
+            return new Stubs(
+                    channel,
+                    cosmos.bank.v1beta1.QueryGrpc.newFutureStub(channel),
+                    cosmos.auth.v1beta1.QueryGrpc.newFutureStub(channel),
+                    ServiceGrpc.newFutureStub(channel),
+                    cosmos.base.tendermint.v1beta1.ServiceGrpc.newFutureStub(channel)
+            );
+        }
+    }
+
+    static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                future.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+}
@@ -0,0 +1,257 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.common.constants.HttpMethod;
+import cn.com.vortexa.common.entity.ProxyInfo;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSONObject;
+
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按代理复用的 HTTP 客户端
+ * <p>
+ * 每个代理（以及直连）对应一个长期存活的 HttpClient，内部保持 keep-alive 连接池，优先协商 HTTP/2，
+ * 共用同一代理的账户不再各自握手 TLS；每个 代理 -> 目标 host 单独限制在途请求数
+ * <p>
+ * 带账号密码的代理需要对 CONNECT 隧道做 Basic 认证，JDK 默认禁用；需要在 JVM 启动参数里指定
+ * -Djdk.http.auth.tunneling.disabledSchemes=，或由 {@link cn.com.vortexa.gopher.GopherApp} 在启动时设置
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherHttpClientPool {
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_HOST = 32;
+
+    private static final String DIRECT_KEY = "direct";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * HttpClient 自己管理的请求头，不能手动设置
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade"
+    );
+
+    /**
+     * 连接池统计
+     *
+     * @param clients          已创建的 HttpClient 数（代理数 + 直连）
+     * @param hosts            代理 -> host 组合数
+     * @param inFlight         在途请求数
+     * @param waiting          因 host 在途上限排队的请求数
+     * @param requests         已完成请求数
+     * @param failures         失败数（网络异常或非 2xx）
+     * @param http2Responses   以 HTTP/2 完成的响应数
+     * @param avgLatencyMillis 平均耗时，含排队
+     */
+    public record PoolMetrics(
+            int clients,
+            int hosts,
+            int inFlight,
+            int waiting,
+            long requests,
+            long failures,
+            long http2Responses,
+            double avgLatencyMillis
+    ) {
+    }
+
+    private final int maxInFlightPerHost;
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, GopherRequestLimiter> hostLimiters = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong http2Responses = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    public GopherHttpClientPool() {
+        this(DEFAULT_MAX_IN_FLIGHT_PER_HOST);
+    }
+
+    public GopherHttpClientPool(int maxInFlightPerHost) {
+        this.maxInFlightPerHost = maxInFlightPerHost;
+    }
+
+    /**
+     * 直连客户端，不走代理的请求（如 JSON-RPC 批量）共用
+     */
+    public HttpClient directClient() {
+        return clients.computeIfAbsent(DIRECT_KEY, k -> newClient(null));
+    }
+
+    /**
+     * 发送请求并把响应体解析为 JSONObject
+     */
+    public CompletableFuture<JSONObject> jsonRequest(
+            ProxyInfo proxy,
+            String url,
+            HttpMethod method,
+            Map<String, String> headers,
+            JSONObject params,
+            JSONObject body
+    ) {
+        return request(proxy, url, method, headers, params, body).thenApply(JSONObject::parseObject);
+    }
+
+    /**
+     * 发送请求，返回响应体；非 2xx 时以 GopherHttpStatusException 失败
+     */
+    public CompletableFuture<String> request(
+            ProxyInfo proxy,
+            String url,
+            HttpMethod method,
+            Map<String, String> headers,
+            JSONObject params,
+            JSONObject body
+    ) {
+        return requestText(proxy, url, method, headers, params, body == null ? null : body.toJSONString());
+    }
+
+    /**
+     * 请求体为任意 JSON 文本（如 JSON-RPC 批量请求的数组）
+     */
+    public CompletableFuture<String> requestText(
+            ProxyInfo proxy,
+            String url,
+            HttpMethod method,
+            Map<String, String> headers,
+            JSONObject params,
+            String body
+    ) {
+        HttpRequest request;
+        try {
+            request = buildRequest(url, method, headers, params, body);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        String proxyKey = proxyKey(proxy);
+        HttpClient client = clients.computeIfAbsent(proxyKey, k -> newClient(proxy));
+        GopherRequestLimiter hostLimiter = hostLimiters.computeIfAbsent(
+                proxyKey + "->" + request.uri().getHost(), k -> new GopherRequestLimiter(maxInFlightPerHost)
+        );
+
+        long start = System.nanoTime();
+        return hostLimiter.submit(() -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .whenComplete((response, e) -> {
+                    requests.incrementAndGet();
+                    totalLatencyNanos.addAndGet(System.nanoTime() - start);
+                    if (e != null || response.statusCode() / 100 != 2) {
+                        failures.incrementAndGet();
+                    }
+                    if (response != null && response.version() == HttpClient.Version.HTTP_2) {
+                        http2Responses.incrementAndGet();
+                    }
+                })
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new GopherHttpStatusException(url, response.statusCode(), response.body());
+                    }
+                    return response.body();
+                });
+    }
+
+    public PoolMetrics getMetrics() {
+        int inFlight = 0;
+        int waiting = 0;
+        for (GopherRequestLimiter limiter : hostLimiters.values()) {
+            inFlight += limiter.getRunning();
+            waiting += limiter.getWaiting();
+        }
+        long count = requests.get();
+        return new PoolMetrics(
+                clients.size(),
+                hostLimiters.size(),
+                inFlight,
+                waiting,
+                count,
+                failures.get(),
+                http2Responses.get(),
+                count == 0 ? 0 : totalLatencyNanos.get() / 1_000_000.0 / count
+        );
+    }
+
+    private static HttpRequest buildRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject params, String body
+    ) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(appendQuery(url, params)))
+                .timeout(REQUEST_TIMEOUT)
+                .method(
+                        method.name(),
+                        body == null
+                                ? HttpRequest.BodyPublishers.noBody()
+                                : HttpRequest.BodyPublishers.ofString(body)
+                );
+        if (headers != null) {
+            headers.forEach((name, value) -> {
+                if (value != null && !RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                    builder.header(name, value);
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    private static String appendQuery(String url, JSONObject params) {
+        if (params == null || params.isEmpty()) {
+            return url;
+        }
+        StringBuilder sb = new StringBuilder(url).append(url.contains("?") ? '&' : '?');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            if (!first) {
+                sb.append('&');
+            }
+            first = false;
+            sb.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    static String proxyKey(ProxyInfo proxy) {
+        if (proxy == null || StrUtil.isBlank(proxy.getHost())) {
+            return DIRECT_KEY;
+        }
+        return proxy.getHost() + ":" + proxy.getPort() + ":" + StrUtil.nullToEmpty(proxy.getUsername());
+    }
+
+    private static HttpClient newClient(ProxyInfo proxy) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT);
+        if (proxy != null && StrUtil.isNotBlank(proxy.getHost())) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+            if (StrUtil.isNotBlank(proxy.getUsername())) {
+                PasswordAuthentication credential = new PasswordAuthentication(
+                        proxy.getUsername(), StrUtil.nullToEmpty(proxy.getPassword()).toCharArray()
+                );
+                builder.authenticator(new Authenticator() {
+                    @Override
+                    protected PasswordAuthentication getPasswordAuthentication() {
+                        return getRequestorType() == RequestorType.PROXY ? credential : null;
+                    }
+                });
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,30 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import lombok.Getter;
+
+/**
+ * HTTP 请求返回非 2xx 状态码
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+@Getter
+public class GopherHttpStatusException extends RuntimeException {
+    public static final int STATUS_TOO_MANY_REQUESTS = 429;
+
+    private final String url;
+    private final int statusCode;
+    private final String body;
+
+    public GopherHttpStatusException(String url, int statusCode, String body) {
+        super("http request [%s] failed, status[%s] %s".formatted(url, statusCode, body));
+        this.url = url;
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    public boolean isTooManyRequests() {
+        return statusCode == STATUS_TOO_MANY_REQUESTS;
+    }
+}
@@ -0,0 +1,218 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.common.constants.HttpMethod;
+import cn.com.vortexa.common.entity.ProxyInfo;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JSON-RPC 批量请求
+ * <p>
+ * 按账户代理分组：同一代理下多个账户的 abci_query 先攒在一起，攒够 maxBatchSize 或等待 lingerMillis 后
+ * 作为一个 JSON 数组经 {@link GopherHttpClientPool} 从该代理一次 POST，响应按 id 分发回各自的 future。
+ * 不同代理的账户不会出现在同一个批次里，出口 IP 与不批量时一致；请求头取批次内第一个账户的
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherJsonRpcBatcher implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+    public static final long DEFAULT_LINGER_MILLIS = 5;
+
+    private final String url;
+    private final GopherRequestLimiter limiter;
+    private final GopherHttpClientPool httpPool;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final ScheduledExecutorService timer;
+
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ProxyBatch> pending = new HashMap<>();
+
+    public GopherJsonRpcBatcher(String url, GopherRequestLimiter limiter, GopherHttpClientPool httpPool) {
+        this(url, limiter, httpPool, DEFAULT_MAX_BATCH_SIZE, DEFAULT_LINGER_MILLIS);
+    }
+
+    public GopherJsonRpcBatcher(
+            String url, GopherRequestLimiter limiter, GopherHttpClientPool httpPool, int maxBatchSize, long lingerMillis
+    ) {
+        this.url = url;
+        this.limiter = limiter;
+        this.httpPool = httpPool;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gopher-json-rpc-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 加入该代理的当前批次，返回 JSON-RPC 的 result
+     */
+    public CompletableFuture<JSONObject> call(
+            ProxyInfo proxy, Map<String, String> headers, String method, Map<String, Object> params
+    ) {
+        PendingCall call = new PendingCall(idGenerator.incrementAndGet(), method, params, new CompletableFuture<>());
+        String proxyKey = GopherHttpClientPool.proxyKey(proxy);
+        ProxyBatch full = null;
+        lock.lock();
+        try {
+            ProxyBatch batch = pending.computeIfAbsent(proxyKey, k -> new ProxyBatch(proxy, headers));
+            batch.calls.add(call);
+            if (batch.calls.size() >= maxBatchSize) {
+                full = take(proxyKey);
+            } else if (batch.lingerTask == null) {
+                batch.lingerTask = timer.schedule(() -> flush(proxyKey), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            send(full);
+        }
+        return call.future;
+    }
+
+    /**
+     * 立即发出所有代理的当前批次
+     */
+    public void flush() {
+        List<ProxyBatch> batches = new ArrayList<>();
+        lock.lock();
+        try {
+            for (String proxyKey : new ArrayList<>(pending.keySet())) {
+                batches.add(take(proxyKey));
+            }
+        } finally {
+            lock.unlock();
+        }
+        batches.forEach(this::send);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        timer.shutdown();
+    }
+
+    private void flush(String proxyKey) {
+        ProxyBatch batch;
+        lock.lock();
+        try {
+            batch = take(proxyKey);
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    /**
+     * 调用方持有 lock
+     */
+    private ProxyBatch take(String proxyKey) {
+        ProxyBatch batch = pending.remove(proxyKey);
+        if (batch != null && batch.lingerTask != null) {
+            batch.lingerTask.cancel(false);
+            batch.lingerTask = null;
+        }
+        return batch;
+    }
+
+    private void send(ProxyBatch batch) {
+        List<PendingCall> calls = batch.calls;
+        JSONArray body = new JSONArray(calls.size());
+        for (PendingCall call : calls) {
+            JSONObject item = new JSONObject();
+            item.put("id", call.id);
+            item.put("jsonrpc", "2.0");
+            item.put("method", call.method);
+            item.put("params", call.params);
+            body.add(item);
+        }
+
+        limiter.submit(() -> httpPool.requestText(
+                        batch.proxy, url, HttpMethod.POST, batch.headers, null, body.toJSONString()
+                ))
+                .whenComplete((responseBody, e) -> {
+                    if (e != null) {
+                        failAll(calls, GopherAsyncApiImpl.unwrap(e));
+                        return;
+                    }
+                    try {
+                        dispatch(calls, responseBody);
+                    } catch (Exception parseError) {
+                        failAll(calls, parseError);
+                    }
+                });
+    }
+
+    private static void dispatch(List<PendingCall> batch, String responseBody) {
+        Object parsed = JSON.parse(responseBody);
+        if (!(parsed instanceof JSONArray results)) {
+            // 整个批次被拒绝时节点返回单个 error 对象
+            throw new RuntimeException("json rpc batch error, " + responseBody);
+        }
+        Map<Long, PendingCall> byId = new HashMap<>(batch.size() * 2);
+        for (PendingCall call : batch) {
+            byId.put(call.id, call);
+        }
+        for (int i = 0; i < results.size(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            PendingCall call = byId.remove(result.getLong("id"));
+            if (call == null) {
+                continue;
+            }
+            if (result.get("error") != null) {
+                call.future.completeExceptionally(new RuntimeException("json rpc error, " + result.get("error")));
+            } else {
+                call.future.complete(result.getJSONObject("result"));
+            }
+        }
+        for (PendingCall call : byId.values()) {
+            call.future.completeExceptionally(new RuntimeException("json rpc batch response missing id " + call.id));
+        }
+    }
+
+    private static void failAll(List<PendingCall> batch, Throwable e) {
+        for (PendingCall call : batch) {
+            call.future.completeExceptionally(e);
+        }
+    }
+
+    private record PendingCall(long id, String method, Map<String, Object> params, CompletableFuture<JSONObject> future) {
+    }
+
+    /**
+     * 同一代理下攒着的调用，字段由 lock 保护
+     */
+    private static final class ProxyBatch {
+        private final ProxyInfo proxy;
+        private final Map<String, String> headers;
+        private final List<PendingCall> calls = new ArrayList<>();
+        private ScheduledFuture<?> lingerTask;
+
+        private ProxyBatch(ProxyInfo proxy, Map<String, String> headers) {
+            this.proxy = proxy;
+            this.headers = headers;
+        }
+    }
+}
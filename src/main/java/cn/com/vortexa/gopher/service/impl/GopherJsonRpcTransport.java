@@ -0,0 +1,172 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.gopher.service.GopherChainTransport;
+import cn.com.vortexa.gopher.util.GopherProtoDecoder;
+import cn.com.vortexa.gopher.util.GopherWalletUtil;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.HexUtil;
+import com.alibaba.fastjson.JSONObject;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import cosmos.base.query.v1beta1.Pagination;
+import cosmos.tx.v1beta1.ServiceOuterClass;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * JSON-RPC 通道，protobuf 请求 hex 编码后放进 abci_query，响应 value 为 base64
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherJsonRpcTransport implements GopherChainTransport {
+    private static final String PATH_SIMULATE = "/cosmos.tx.v1beta1.Service/Simulate";
+
+    private final GopherRpcClient rpcClient;
+
+    public GopherJsonRpcTransport(GopherRpcClient rpcClient) {
+        this.rpcClient = rpcClient;
+    }
+
+    @Override
+    public CompletableFuture<Long> queryBalance(
+            FullAccountContext fullAccountContext, String address, String denom
+    ) {
+        String data;
+        try {
+            data = GopherWalletUtil.buildQueryBalanceData(address, denom);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return abciQuery(fullAccountContext, "/cosmos.bank.v1beta1.Query/Balance", data).thenApply(value -> {
+            try {
+                return GopherProtoDecoder.decodeBalanceAmount(value);
+            } catch (InvalidProtocolBufferException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesResponse> queryAllBalances(
+            FullAccountContext fullAccountContext, String address, Pagination.PageRequest pageRequest
+    ) {
+        byte[] request = cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesRequest.newBuilder()
+                .setAddress(address)
+                .setPagination(pageRequest)
+                .build()
+                .toByteArray();
+        return abciQuery(fullAccountContext, "/cosmos.bank.v1beta1.Query/AllBalances", HexUtil.encodeHexStr(request)).thenApply(value -> {
+            try {
+                return cosmos.bank.v1beta1.QueryOuterClass.QueryAllBalancesResponse.parseFrom(value);
+            } catch (InvalidProtocolBufferException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Pair<Long, Long>> queryAccount(
+            FullAccountContext fullAccountContext, String address
+    ) {
+        String data;
+        try {
+            data = GopherWalletUtil.buildQueryAccountData(address);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return abciQuery(fullAccountContext, "/cosmos.auth.v1beta1.Query/Account", data).thenApply(value -> {
+            try {
+                return GopherProtoDecoder.decodeAccount(value);
+            } catch (InvalidProtocolBufferException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> broadcastTx(FullAccountContext fullAccountContext, String txBase64) {
+        return rpcClient.jsonRpc(
+                fullAccountContext,
+                "broadcast_tx_sync",
+                Map.of(
+                        "tx", txBase64
+                )
+        ).thenApply(result -> {
+            int code = result.getIntValue("code");
+            if (code != 0) {
+                throw new GopherTxException(code, result.getString("codespace"), result.getString("log"), result.getString("hash"));
+            }
+            return result.getString("hash");
+        });
+    }
+
+    @Override
+    public CompletableFuture<ServiceOuterClass.SimulateResponse> simulateTx(
+            FullAccountContext fullAccountContext, byte[] txBytes
+    ) {
+        byte[] request = ServiceOuterClass.SimulateRequest.newBuilder()
+                .setTxBytes(ByteString.copyFrom(txBytes))
+                .build()
+                .toByteArray();
+        // Simulate 不是存储查询，不需要 proof；与余额查询一样走批量合并
+        return abciQueryResponse(fullAccountContext, PATH_SIMULATE, HexUtil.encodeHexStr(request), false).thenApply(response -> {
+            int code = response.getIntValue("code");
+            if (code != 0) {
+                throw new GopherTxException(code, response.getString("codespace"), response.getString("log"), null);
+            }
+            try {
+                return ServiceOuterClass.SimulateResponse.parseFrom(decodeValue(response));
+            } catch (InvalidProtocolBufferException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * tendermint.v1beta1 Service 只在 gRPC 上注册，abci_query 路由不到，这里用节点的 status 接口
+     */
+    @Override
+    public CompletableFuture<Long> latestBlockHeight(FullAccountContext fullAccountContext) {
+        return rpcClient.jsonRpc(fullAccountContext, "status", Map.of())
+                .thenApply(result -> result.getJSONObject("sync_info").getLongValue("latest_block_height"));
+    }
+
+    /**
+     * abci_query，返回 response.value 解码后的 protobuf 字节；只读查询，允许批量合并
+     */
+    private CompletableFuture<byte[]> abciQuery(FullAccountContext fullAccountContext, String path, String hexData) {
+        return abciQueryResponse(fullAccountContext, path, hexData, true).thenApply(response -> {
+            int code = response.getIntValue("code");
+            if (code != 0) {
+                throw new RuntimeException("abci_query [%s] failed, code[%s] %s".formatted(path, code, response.getString("log")));
+            }
+            return decodeValue(response);
+        });
+    }
+
+    private CompletableFuture<JSONObject> abciQueryResponse(
+            FullAccountContext fullAccountContext, String path, String hexData, boolean prove
+    ) {
+        return rpcClient.batchJsonRpc(
+                fullAccountContext,
+                "abci_query",
+                Map.of(
+                        "data", hexData,
+                        "path", path,
+                        "prove", prove
+                )
+        ).thenApply(result -> result.getJSONObject("response"));
+    }
+
+    private static byte[] decodeValue(JSONObject response) {
+        String value = response.getString("value");
+        return value == null ? new byte[0] : Base64.getDecoder().decode(value);
+    }
+}
@@ -0,0 +1,118 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 非阻塞的并发请求限制器，每个 bot 一个
+ * <p>
+ * 超出上限的请求排队而不是阻塞线程，前一个请求完成时再发出，虚拟线程 / 异步调用下都不会 pin 住线程；
+ * 账户数再多，同时打到 RPC 节点的请求也不超过 maxConcurrent；排队数超过 maxWaiting 时直接以 RejectedExecutionException 失败。
+ * <p>
+ * 同一时刻只有一个线程在派发队列，请求同步完成时触发的 drain 只置位后返回，由正在派发的线程继续循环，不会递归压栈
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherRequestLimiter {
+    public static final int DEFAULT_MAX_WAITING = 10_000;
+
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    public GopherRequestLimiter(int maxConcurrent) {
+        this(maxConcurrent, DEFAULT_MAX_WAITING);
+    }
+
+    public GopherRequestLimiter(int maxConcurrent, int maxWaiting) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive, " + maxConcurrent);
+        }
+        if (maxWaiting <= 0) {
+            throw new IllegalArgumentException("maxWaiting must be positive, " + maxWaiting);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        if (waitingCount.incrementAndGet() > maxWaiting) {
+            waitingCount.decrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "request limiter queue is full, waiting[%s]".formatted(maxWaiting)
+            ));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.offer(() -> start(call, result));
+        drain();
+        return result;
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getWaiting() {
+        return waitingCount.get();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, e) -> {
+            running.decrementAndGet();
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
+            }
+            drain();
+        });
+    }
+
+    /**
+     * trampoline：抢到 draining 的线程循环派发，其它线程（包括同步完成时的回调）直接返回；
+     * 释放 draining 后再检查一次，避免与刚入队或刚完成的请求错过彼此
+     */
+    private void drain() {
+        while (hasWork()) {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                while (running.get() < maxConcurrent) {
+                    Runnable task = waiting.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    waitingCount.decrementAndGet();
+                    running.incrementAndGet();
+                    task.run();
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        return !waiting.isEmpty() && running.get() < maxConcurrent;
+    }
+}
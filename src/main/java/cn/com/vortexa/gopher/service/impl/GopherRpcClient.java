@@ -0,0 +1,548 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.base.constants.HeaderKey;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.common.constants.HttpMethod;
+import cn.com.vortexa.gopher.service.GopherChainTransport;
+import cn.com.vortexa.gopher.util.GopherAmount;
+import cn.com.vortexa.gopher.util.GopherCosmosSigner;
+import cn.com.vortexa.gopher.util.GopherGasEstimator;
+import cn.com.vortexa.gopher.util.GopherKey;
+import cn.com.vortexa.gopher.util.GopherWalletUtil;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.parser.Feature;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import cosmos.base.query.v1beta1.Pagination;
+import cosmos.base.v1beta1.CoinOuterClass;
+import cosmos.tx.v1beta1.ServiceOuterClass;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Gopher 链 / hub 接口的网络调用，GopherApiImpl 与 GopherTxPipeline 共用
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherRpcClient {
+    public static final String CHAIN_ID = "gopher-testnet";
+    public static final String VALIDATOR_ADDRESS = "gophervaloper1smqe67yyzwluucgf4chdta22gnl7ye7na3u63d";
+    public static final String ORIGIN_TOKEN_DENOM = "ugoai";
+
+    private static final String VOTE_URL = "https://gopher-testnet-validator.dev.masalabs.ai/cosmos/gov/v1/proposals";
+    private static final String BASE_URL = "https://hub.gopher-ai.com/api";
+    private static final String JSON_RPC_URL = "https://rpc-gopher-testnet-validator.dev.masalabs.ai/";
+    private static final String WEBSOCKET_URL = "wss://rpc-gopher-testnet-validator.dev.masalabs.ai/websocket";
+
+    private static final String PATH_FAUCET = "/faucet";
+    private static final String PATH_STAKE_PREPARE = "/staking/prepare-tx";
+    private static final String PATH_UN_STAKE_PREPARE = "/staking/undelegate";
+    private static final String PATH_STAKE_INFO = "/staking/info";
+
+    /**
+     * 默认单个 bot 同时在途的请求数
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+
+    private static final long ALL_BALANCES_PAGE_LIMIT = 100;
+
+    private final GopherRequestLimiter limiter;
+
+    /**
+     * 按代理复用连接的 HTTP 客户端，hub 接口与单条 JSON-RPC 走这里
+     */
+    private final GopherHttpClientPool httpPool;
+
+    /**
+     * 本地 gas 估算，按消息类型学习实际 gas_used
+     */
+    private final GopherGasEstimator gasEstimator;
+
+    private final boolean localTxAssembly;
+
+    private final boolean simulateBeforeBroadcast;
+
+    /**
+     * 只在 confirmTx 开启时创建，订阅上链事件并把成功交易的 gas_used 喂给 gasEstimator；未开启时为空，不建立 websocket 连接
+     */
+    private final GopherConfirmationTracker confirmationTracker;
+
+    /**
+     * JSON-RPC 通道，始终可用，gRPC 不可用时查询回退到这里
+     */
+    private final GopherChainTransport jsonTransport;
+
+    /**
+     * 当前使用的通道，未配置 gRPC 时与 jsonTransport 相同
+     */
+    private final GopherChainTransport transport;
+
+    /**
+     * 为空时不合并请求
+     */
+    private final GopherJsonRpcBatcher batcher;
+
+    /**
+     * 派生密钥（PBKDF2）与签名是 CPU 密集操作，放在与流水线批量签名共用的签名线程池，不占用 HttpClient / gRPC 的回调线程
+     */
+    private final Executor signExecutor;
+
+    public GopherRpcClient() {
+        this(DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    public GopherRpcClient(int maxConcurrentRequests) {
+        this(maxConcurrentRequests, null, false);
+    }
+
+    public GopherRpcClient(int maxConcurrentRequests, String grpcTarget, boolean grpcTls) {
+        this(maxConcurrentRequests, grpcTarget, grpcTls, false);
+    }
+
+    public GopherRpcClient(int maxConcurrentRequests, String grpcTarget, boolean grpcTls, boolean batchJsonRpc) {
+        this(maxConcurrentRequests, grpcTarget, grpcTls, batchJsonRpc, false, false, false);
+    }
+
+    /**
+     * @param grpcTarget              节点 gRPC 地址 host:port，为空时只用 JSON-RPC
+     * @param batchJsonRpc            同一代理下账户的 abci_query 是否合并为 JSON-RPC 批量请求
+     * @param localTxAssembly         质押 / 解除质押交易是否在本地组装，不调用 hub 的 prepare-tx 接口
+     * @param simulateBeforeBroadcast 广播前是否先 Simulate，按实际 gas 调整手续费并提前拒绝注定失败的交易
+     * @param confirmTx               广播后是否等待交易上链；关闭时不订阅上链事件，gas 只从 Simulate 结果学习
+     */
+    public GopherRpcClient(
+            int maxConcurrentRequests,
+            String grpcTarget,
+            boolean grpcTls,
+            boolean batchJsonRpc,
+            boolean localTxAssembly,
+            boolean simulateBeforeBroadcast,
+            boolean confirmTx
+    ) {
+        this.localTxAssembly = localTxAssembly;
+        this.simulateBeforeBroadcast = simulateBeforeBroadcast;
+        this.limiter = new GopherRequestLimiter(maxConcurrentRequests);
+        this.httpPool = new GopherHttpClientPool();
+        this.gasEstimator = GopherGasEstimator.withDefaultSeeds(GopherGasEstimator.GasConfig.DEFAULT);
+        this.batcher = batchJsonRpc ? new GopherJsonRpcBatcher(JSON_RPC_URL, limiter, httpPool) : null;
+        this.jsonTransport = new GopherJsonRpcTransport(this);
+        this.transport = StrUtil.isBlank(grpcTarget)
+                ? jsonTransport
+                : new GopherGrpcTransport(grpcTarget, grpcTls, limiter);
+        this.confirmationTracker = confirmTx
+                ? new GopherConfirmationTracker(WEBSOCKET_URL, httpPool.directClient(), gasEstimator)
+                : null;
+        this.signExecutor = GopherCosmosSigner.signExecutor();
+    }
+
+    public GopherRequestLimiter getLimiter() {
+        return limiter;
+    }
+
+    public GopherHttpClientPool getHttpPool() {
+        return httpPool;
+    }
+
+    public GopherGasEstimator getGasEstimator() {
+        return gasEstimator;
+    }
+
+    public boolean isSimulateBeforeBroadcast() {
+        return simulateBeforeBroadcast;
+    }
+
+    public boolean isConfirmTx() {
+        return confirmationTracker != null;
+    }
+
+    /**
+     * 未开启确认时为空
+     */
+    public GopherConfirmationTracker getConfirmationTracker() {
+        return confirmationTracker;
+    }
+
+    public GopherChainTransport getTransport() {
+        return transport;
+    }
+
+    public void close() {
+        transport.close();
+        if (confirmationTracker != null) {
+            confirmationTracker.close();
+        }
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    public CompletableFuture<Pair<Double, String>> balanceQuery(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo, String denom
+    ) {
+        return queryBalanceAmount(fullAccountContext, walletInfo, denom)
+                .thenApply(amount -> GopherWalletUtil.toDisplayBalance(amount.micro(), denom));
+    }
+
+    public CompletableFuture<GopherAmount> queryBalanceAmount(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo, String denom
+    ) {
+        return query(t -> t.queryBalance(fullAccountContext, walletInfo.getAddress(), denom))
+                .thenApply(GopherAmount::ofMicro);
+    }
+
+    /**
+     * 按页拉取地址下全部余额，每页 ALL_BALANCES_PAGE_LIMIT 个 denom，一般一次往返即可
+     */
+    public CompletableFuture<List<CoinOuterClass.Coin>> queryAllBalances(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo
+    ) {
+        return queryAllBalances(fullAccountContext, walletInfo.getAddress(), ByteString.EMPTY, new ArrayList<>());
+    }
+
+    private CompletableFuture<List<CoinOuterClass.Coin>> queryAllBalances(
+            FullAccountContext fullAccountContext, String address, ByteString pageKey, List<CoinOuterClass.Coin> collected
+    ) {
+        Pagination.PageRequest pageRequest = Pagination.PageRequest.newBuilder()
+                .setKey(pageKey)
+                .setLimit(ALL_BALANCES_PAGE_LIMIT)
+                .build();
+        return query(t -> t.queryAllBalances(fullAccountContext, address, pageRequest)).thenCompose(response -> {
+            collected.addAll(response.getBalancesList());
+            ByteString nextKey = response.getPagination().getNextKey();
+            if (nextKey.isEmpty()) {
+                return CompletableFuture.completedFuture(collected);
+            }
+            return queryAllBalances(fullAccountContext, address, nextKey, collected);
+        });
+    }
+
+    public CompletableFuture<GopherAmount> queryStakedBalance(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo
+    ) {
+        return request(
+                fullAccountContext,
+                PATH_STAKE_INFO,
+                HttpMethod.GET,
+                Map.of("address", walletInfo.getAddress()),
+                null
+        ).thenApply(data -> GopherAmount.parse(data.getString("totalDelegated")));
+    }
+
+    public CompletableFuture<List<JSONObject>> getActiveProposal(
+            FullAccountContext fullAccountContext
+    ) {
+        return limiter.submit(() -> httpPool.request(
+                fullAccountContext.getProxy(),
+                VOTE_URL,
+                HttpMethod.GET,
+                buildHeaders(fullAccountContext, null),
+                new JSONObject(Map.of("proposal_status", "PROPOSAL_STATUS_VOTING_PERIOD")),
+                null
+        )).thenApply(response -> {
+            JSONObject result = JSONObject.parseObject(response, Feature.DisableSpecialKeyDetect);
+            JSONArray proposals = result.getJSONArray("proposals");
+            return proposals.stream().map(item -> (JSONObject) item).toList();
+        });
+    }
+
+    public CompletableFuture<GopherCosmosSigner> prepareUnStakeTx(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo, GopherAmount unStakeBalance
+    ) {
+        if (localTxAssembly) {
+            return CompletableFuture.completedFuture(assembleLocalTx(GopherCosmosSigner.undelegateMsg(
+                    walletInfo.getAddress(), VALIDATOR_ADDRESS, unStakeBalance, ORIGIN_TOKEN_DENOM
+            ), unStakeBalance));
+        }
+        return request(
+                fullAccountContext,
+                PATH_UN_STAKE_PREPARE,
+                HttpMethod.POST,
+                null,
+                Map.of(
+                        "delegatorAddress", walletInfo.getAddress(),
+                        "validatorAddress", VALIDATOR_ADDRESS,
+                        "amount", unStakeBalance.toPlainString()
+                )
+        ).thenApply(this::resolvePreparedTx);
+    }
+
+    public CompletableFuture<GopherCosmosSigner> prepareStakeTx(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo, GopherAmount amount
+    ) {
+        if (localTxAssembly) {
+            return CompletableFuture.completedFuture(assembleLocalTx(GopherCosmosSigner.delegateMsg(
+                    walletInfo.getAddress(), VALIDATOR_ADDRESS, amount, ORIGIN_TOKEN_DENOM
+            ), amount));
+        }
+        return request(
+                fullAccountContext,
+                PATH_STAKE_PREPARE,
+                HttpMethod.POST,
+                null,
+                Map.of(
+                        "type", "delegate",
+                        "delegatorAddress", walletInfo.getAddress(),
+                        "validatorAddress", VALIDATOR_ADDRESS,
+                        "amount", amount.toMicroString()
+                )
+        ).thenApply(this::resolvePreparedTx);
+    }
+
+    /**
+     * 模拟执行已签名交易，只读，gRPC 不可用时同样回退到 JSON-RPC（批量合并）
+     */
+    public CompletableFuture<ServiceOuterClass.SimulateResponse> simulateTx(
+            FullAccountContext fullAccountContext, byte[] txBytes
+    ) {
+        return query(t -> t.simulateTx(fullAccountContext, txBytes));
+    }
+
+    /**
+     * 签名交易，开启广播前模拟时先 Simulate 再按实际 gas 重签；取密钥、签名、重签都在 signExecutor 上执行
+     *
+     * @param keyLoader 取签名密钥，缓存未命中时会派生密钥，同样在 signExecutor 上调用
+     * @return 可直接广播的 tx base64；模拟失败（余额不足等）时以异常结束
+     */
+    public CompletableFuture<String> signTx(
+            FullAccountContext fullAccountContext, GopherCosmosSigner signer, Supplier<GopherKey> keyLoader
+    ) {
+        CompletableFuture<Pair<GopherCosmosSigner.SignRequest, String>> signed = CompletableFuture.supplyAsync(() -> {
+            GopherCosmosSigner.SignRequest request = signer.prepare(keyLoader.get());
+            return Pair.of(request, GopherCosmosSigner.sign(request));
+        }, signExecutor);
+        if (!simulateBeforeBroadcast) {
+            return signed.thenApply(Pair::getValue);
+        }
+        return signed.thenCompose(pair -> simulateTx(fullAccountContext, pair.getKey().txRaw())
+                .thenApplyAsync(
+                        response -> applySimulation(signer, keyLoader, response, pair.getValue()),
+                        signExecutor
+                ));
+    }
+
+    /**
+     * 未开启确认时把模拟得到的 gas_used 记入估算器，gas limit 按 gas_used 加安全余量重设；与已签名的值不同时重新签名
+     *
+     * @param keyLoader 重新签名时取密钥；模拟期间缓存里的密钥可能已被淘汰清零，不能复用首次签名时的 GopherKey
+     */
+    public String applySimulation(
+            GopherCosmosSigner signer,
+            Supplier<GopherKey> keyLoader,
+            ServiceOuterClass.SimulateResponse response,
+            String txBase64
+    ) {
+        long gasUsed = response.getGasInfo().getGasUsed();
+        if (confirmationTracker == null) {
+            // 开启确认时由上链的 DeliverTx gas_used 学习，同一笔交易不重复计入样本
+            gasEstimator.record(signer.messageTypeUrls(), gasUsed);
+        }
+        GopherGasEstimator.GasPlan plan = gasEstimator.planWithMargin(gasUsed);
+        if (plan.gasLimit() == signer.getGasLimit()) {
+            return txBase64;
+        }
+        return signer.gasPlan(plan).buildTxBase64(keyLoader.get());
+    }
+
+    /**
+     * 最新区块高度，gRPC 走 cosmos.base.tendermint.v1beta1 GetLatestBlock
+     */
+    public CompletableFuture<Long> latestBlockHeight(FullAccountContext fullAccountContext) {
+        return query(t -> t.latestBlockHeight(fullAccountContext));
+    }
+
+    /**
+     * 等待交易上链，DeliverTx 失败时以 GopherTxException 结束；未开启确认时不跟踪，直接返回空结果
+     *
+     * @param typeUrls 交易内消息的 type url，上链成功后 gas_used 记入估算器
+     */
+    public CompletableFuture<GopherConfirmationTracker.TxConfirmation> awaitConfirmation(String txHash, List<String> typeUrls) {
+        if (confirmationTracker == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return confirmationTracker.track(txHash, typeUrls, GopherConfirmationTracker.DEFAULT_TIMEOUT_MILLIS)
+                .thenApply(confirmation -> {
+                    if (!confirmation.isSuccess()) {
+                        throw new GopherTxException(
+                                confirmation.code(), confirmation.codespace(), confirmation.log(), confirmation.txHash()
+                        );
+                    }
+                    return confirmation;
+                });
+    }
+
+    public CompletableFuture<String> broadcastTxBase64(
+            FullAccountContext fullAccountContext, String txBase64
+    ) {
+        // 广播不回退，gRPC 失败时无法确认节点是否已收到交易
+        return transport.broadcastTx(fullAccountContext, txBase64);
+    }
+
+    public CompletableFuture<Pair<Long, Long>> queryAccountNumberAndSequence(
+            FullAccountContext fullAccountContext, WalletInfo walletInfo
+    ) {
+        return query(t -> t.queryAccount(fullAccountContext, walletInfo.getAddress()));
+    }
+
+    public CompletableFuture<JSONObject> faucet(
+            FullAccountContext fullAccountContext, WalletInfo gopherWallet
+    ) {
+        return request(
+                fullAccountContext,
+                PATH_FAUCET,
+                HttpMethod.POST,
+                null,
+                Map.of("address", gopherWallet.getAddress())
+        );
+    }
+
+    public CompletableFuture<JSONObject> jsonRpc(
+            FullAccountContext fullAccountContext,
+            String method,
+            Map<String, Object> params
+    ) {
+        JSONObject body = new JSONObject();
+        body.put("id", RandomUtil.randomLong());
+        body.put("jsonrpc", "2.0");
+        body.put("method", method);
+        body.put("params", params);
+        return limiter.submit(() -> httpPool.jsonRequest(
+                fullAccountContext.getProxy(),
+                JSON_RPC_URL,
+                HttpMethod.POST,
+                buildHeaders(fullAccountContext, null),
+                null,
+                body
+        )).thenApply(result -> {
+            if (result.get("error") != null) {
+                throw new RuntimeException("json rpc error, " + result.get("error"));
+            }
+            return result.getJSONObject("result");
+        });
+    }
+
+    /**
+     * 可合并的只读 JSON-RPC 调用，开启批量时与同一代理下其它账户的调用合并为一个请求发出
+     */
+    public CompletableFuture<JSONObject> batchJsonRpc(
+            FullAccountContext fullAccountContext,
+            String method,
+            Map<String, Object> params
+    ) {
+        if (batcher == null) {
+            return jsonRpc(fullAccountContext, method, params);
+        }
+        return batcher.call(fullAccountContext.getProxy(), buildHeaders(fullAccountContext, null), method, params);
+    }
+
+    public CompletableFuture<JSONObject> request(
+            FullAccountContext fullAccountContext,
+            String path,
+            HttpMethod method,
+            Map<String, Object> params,
+            Map<String, Object> body
+    ) {
+        return limiter.submit(() -> httpPool.jsonRequest(
+                fullAccountContext.getProxy(),
+                BASE_URL + path,
+                method,
+                buildHeaders(fullAccountContext, path),
+                params == null ? null : new JSONObject(params),
+                body == null ? null : new JSONObject(body)
+        )).thenApply(result -> {
+            if (!result.getBoolean("success")) {
+                throw new RuntimeException("request [%s] failed, %s".formatted(path, result.get("error")));
+            }
+            return result.getJSONObject("data");
+        });
+    }
+
+    /**
+     * 走当前通道查询，gRPC 连接不可用或节点未开放该服务时回退到 JSON-RPC
+     */
+    private <T> CompletableFuture<T> query(Function<GopherChainTransport, CompletableFuture<T>> call) {
+        CompletableFuture<T> future = call.apply(transport);
+        if (transport == jsonTransport) {
+            return future;
+        }
+        return future.exceptionallyCompose(e -> {
+            Throwable cause = GopherAsyncApiImpl.unwrap(e);
+            if (cause instanceof StatusRuntimeException statusException
+                    && (statusException.getStatus().getCode() == Status.Code.UNAVAILABLE
+                    || statusException.getStatus().getCode() == Status.Code.UNIMPLEMENTED)) {
+                return call.apply(jsonTransport);
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    /**
+     * 本地组装单条消息的交易，gas 与手续费取本地估算
+     */
+    private GopherCosmosSigner assembleLocalTx(Any message, GopherAmount amount) {
+        GopherCosmosSigner signer = GopherCosmosSigner.builder()
+                .chainId(CHAIN_ID)
+                .amount(amount)
+                .denom(ORIGIN_TOKEN_DENOM)
+                .addMessage(message);
+        return signer
+                .gasPlan(gasEstimator.plan(signer.messageTypeUrls()))
+                .feeDenom(ORIGIN_TOKEN_DENOM);
+    }
+
+    /**
+     * hub 没有返回 gasEstimate / fee 时改用本地估算
+     */
+    private GopherCosmosSigner resolvePreparedTx(JSONObject data) {
+        JSONArray messages = data.getJSONArray("messages");
+        JSONObject amount = messages.getJSONObject(0).getJSONObject("value").getJSONObject("amount");
+        GopherCosmosSigner signer = GopherCosmosSigner.builder()
+                .chainId(CHAIN_ID)
+                .amount(GopherAmount.parseMicro(amount.getString("amount")))
+                .denom(amount.getString("denom"));
+        for (int i = 0; i < messages.size(); i++) {
+            JSONObject message = messages.getJSONObject(i);
+            signer.addMessage(message.getString("typeUrl"), message.getJSONObject("value"));
+        }
+        String gasEstimate = data.getString("gasEstimate");
+        JSONObject fee = data.getJSONObject("fee");
+        if (StrUtil.isBlank(gasEstimate) || fee == null) {
+            return signer
+                    .gasPlan(gasEstimator.plan(signer.messageTypeUrls()))
+                    .feeDenom(ORIGIN_TOKEN_DENOM);
+        }
+        return signer
+                .gasLimit(Long.parseLong(gasEstimate))
+                .feeAmount(GopherAmount.parseMicro(fee.getString("amount")))
+                .feeDenom(fee.getString("denom"));
+    }
+
+    private static Map<String, String> buildHeaders(
+            FullAccountContext fullAccountContext,
+            String path
+    ) {
+        Map<String, String> headers = fullAccountContext.buildHeader();
+        headers.put(HeaderKey.ORIGIN, "https://hub.gopher-ai.com");
+        String referer = "https://hub.gopher-ai.com/";
+        if (PATH_FAUCET.equals(path)) {
+            referer += "gopher-faucet";
+        }
+        headers.put(HeaderKey.REFERER, referer);
+        headers.put(HeaderKey.CONTENT_TYPE, "application/json");
+        return headers;
+    }
+}
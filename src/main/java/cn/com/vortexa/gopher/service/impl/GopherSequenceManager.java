@@ -0,0 +1,134 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.lang.Pair;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按地址在本地维护 account number 与 sequence
+ * <p>
+ * account number 查到一次后永久缓存；sequence 乐观分配，每次 acquire 自增，
+ * 只有第一次使用、交易失败或节点返回 sequence mismatch 时才重新 abci_query 同步
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherSequenceManager {
+    private final GopherRpcClient rpcClient;
+    private final ConcurrentHashMap<String, AccountSequence> sequences = new ConcurrentHashMap<>();
+
+    public GopherSequenceManager(GopherRpcClient rpcClient) {
+        this.rpcClient = rpcClient;
+    }
+
+    /**
+     * 分配下一个 sequence
+     *
+     * @return Pair(accountNumber, sequence)
+     */
+    public CompletableFuture<Pair<Long, Long>> acquire(FullAccountContext fullAccountContext, WalletInfo walletInfo) {
+        AccountSequence state = sequences.computeIfAbsent(walletInfo.getAddress(), k -> new AccountSequence());
+        CompletableFuture<Void> sync;
+        boolean starter = false;
+        state.lock.lock();
+        try {
+            if (state.synced) {
+                return CompletableFuture.completedFuture(Pair.of(state.accountNumber, state.nextSequence++));
+            }
+            if (state.syncing == null) {
+                state.syncing = new CompletableFuture<>();
+                starter = true;
+            }
+            sync = state.syncing;
+        } finally {
+            state.lock.unlock();
+        }
+
+        if (starter) {
+            rpcClient.queryAccountNumberAndSequence(fullAccountContext, walletInfo).whenComplete((pair, e) -> {
+                state.lock.lock();
+                try {
+                    if (e == null) {
+                        state.accountNumber = pair.getKey();
+                        state.nextSequence = pair.getValue();
+                        state.synced = true;
+                    }
+                    state.syncing = null;
+                } finally {
+                    state.lock.unlock();
+                }
+                if (e != null) {
+                    sync.completeExceptionally(e);
+                } else {
+                    sync.complete(null);
+                }
+            });
+        }
+        return sync.thenCompose(v -> acquire(fullAccountContext, walletInfo));
+    }
+
+    /**
+     * 广播成功，sequence 已在 acquire 时前移，无需额外操作
+     */
+    public void onTxSuccess(String address, long sequence) {
+    }
+
+    /**
+     * 交易没有上链，根据失败原因回退或标记为需要重新同步
+     */
+    public void onTxFailed(String address, long sequence, Throwable e) {
+        AccountSequence state = sequences.get(address);
+        if (state == null) {
+            return;
+        }
+        Throwable cause = GopherAsyncApiImpl.unwrap(e);
+        state.lock.lock();
+        try {
+            if (!state.synced) {
+                return;
+            }
+            if (cause instanceof GopherTxException txException) {
+                long expected = txException.isSequenceMismatch() ? txException.getExpectedSequence() : -1;
+                if (expected >= 0) {
+                    state.nextSequence = expected;
+                } else if (!txException.isSequenceMismatch() && state.nextSequence == sequence + 1) {
+                    // CheckTx 拒绝的交易不消耗 sequence，且之后没有再分配过，直接回退
+                    state.nextSequence = sequence;
+                } else {
+                    state.synced = false;
+                }
+            } else {
+                // 网络异常等无法确认节点是否收到，重新同步
+                state.synced = false;
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    public void invalidate(String address) {
+        AccountSequence state = sequences.get(address);
+        if (state == null) {
+            return;
+        }
+        state.lock.lock();
+        try {
+            state.synced = false;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    private static final class AccountSequence {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long accountNumber;
+        private long nextSequence;
+        private boolean synced = false;
+        private CompletableFuture<Void> syncing;
+    }
+}
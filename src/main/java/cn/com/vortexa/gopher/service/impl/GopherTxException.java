@@ -0,0 +1,61 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import lombok.Getter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 交易被节点拒绝：broadcast_tx_sync 返回 code != 0（CheckTx）、Simulate 执行失败或上链后 DeliverTx 失败
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+@Getter
+public class GopherTxException extends RuntimeException {
+    /**
+     * cosmos-sdk ErrWrongSequence
+     */
+    public static final int CODE_WRONG_SEQUENCE = 32;
+
+    /**
+     * gRPC 只返回错误描述、拿不到 ABCI code 时使用
+     */
+    public static final int CODE_UNKNOWN = -1;
+
+    /**
+     * cosmos-sdk ErrWrongSequence 的错误描述
+     */
+    public static final String WRONG_SEQUENCE_MESSAGE = "incorrect account sequence";
+
+    private static final Pattern EXPECTED_SEQUENCE = Pattern.compile("expected (\\d+), got (\\d+)");
+
+    private final int code;
+    private final String codespace;
+    private final String log;
+    private final String txHash;
+
+    public GopherTxException(int code, String codespace, String log, String txHash) {
+        super("tx rejected, code[%s] codespace[%s] %s".formatted(code, codespace, log));
+        this.code = code;
+        this.codespace = codespace;
+        this.log = log;
+        this.txHash = txHash;
+    }
+
+    public boolean isSequenceMismatch() {
+        return code == CODE_WRONG_SEQUENCE && ("sdk".equals(codespace) || codespace == null || codespace.isEmpty());
+    }
+
+    /**
+     * 从 "account sequence mismatch, expected 8, got 7" 中解析节点期望的 sequence，解析不到返回 -1
+     */
+    public long getExpectedSequence() {
+        if (log == null) {
+            return -1;
+        }
+        Matcher matcher = EXPECTED_SEQUENCE.matcher(log);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
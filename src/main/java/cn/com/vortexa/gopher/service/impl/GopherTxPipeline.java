@@ -0,0 +1,367 @@
+package cn.com.vortexa.gopher.service.impl;
+
+
+import cn.com.vortexa.base.util.log.AppendLogger;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.gopher.util.GopherAmount;
+import cn.com.vortexa.gopher.util.GopherCosmosSigner;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.lang.Pair;
+import cosmos.tx.v1beta1.ServiceOuterClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 质押 / 解除质押的分阶段流水线：query -> prepare -> sign -> broadcast
+ * <p>
+ * 阶段之间用有界队列连接，每个阶段有自己的并发数；A 账户在签名时 B 账户已经在 prepare、C 账户在广播。
+ * 队列满时 {@link #submit} 阻塞调用方，形成背压，避免把 RPC 节点打爆
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+@Slf4j
+public class GopherTxPipeline {
+    private static final long POLL_INTERVAL_MS = 50;
+
+    public enum TxKind {
+        STAKE,
+        UN_STAKE
+    }
+
+    /**
+     * @param queueCapacity        每个阶段输入队列的容量
+     * @param queryConcurrency     余额查询阶段的并发
+     * @param prepareConcurrency   prepare-tx + 账户查询阶段的并发
+     * @param signConcurrency      签名阶段的并发，每个 worker 一次取一批交给 signBatch
+     * @param signBatchSize        签名阶段单批最大数量
+     * @param broadcastConcurrency 广播阶段的并发
+     */
+    public record PipelineConfig(
+            int queueCapacity,
+            int queryConcurrency,
+            int prepareConcurrency,
+            int signConcurrency,
+            int signBatchSize,
+            int broadcastConcurrency
+    ) {
+        public static final PipelineConfig DEFAULT = new PipelineConfig(64, 8, 8, 2, 32, 8);
+    }
+
+    private final GopherRpcClient rpcClient;
+    private final GopherSequenceManager sequenceManager;
+    private final TxKind kind;
+    private final int minPercent;
+    private final int maxPercent;
+    private final List<Stage> stages = new ArrayList<>();
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger failCount = new AtomicInteger();
+    /**
+     * 已提交账户的结果，广播后仍在等待上链确认的账户不在任何阶段的 worker 里，只能靠它等待
+     */
+    private final Queue<CompletableFuture<String>> results = new ConcurrentLinkedQueue<>();
+
+    public GopherTxPipeline(
+            GopherRpcClient rpcClient,
+            GopherSequenceManager sequenceManager,
+            TxKind kind,
+            int minPercent,
+            int maxPercent,
+            PipelineConfig config
+    ) {
+        this.rpcClient = rpcClient;
+        this.sequenceManager = sequenceManager;
+        this.kind = kind;
+        this.minPercent = minPercent;
+        this.maxPercent = maxPercent;
+
+        stages.add(new Stage("query", config.queryConcurrency(), 1, config.queueCapacity(), false, perTask("query", this::query)));
+        stages.add(new Stage("prepare", config.prepareConcurrency(), 1, config.queueCapacity(), false, perTask("prepare", this::prepare)));
+        stages.add(new Stage("sign", config.signConcurrency(), config.signBatchSize(), config.queueCapacity(), true, this::sign));
+        if (rpcClient.isSimulateBeforeBroadcast()) {
+            // 与查询共用 JSON-RPC 批量合并，多个账户的 Simulate 合成一个请求
+            stages.add(new Stage("simulate", config.broadcastConcurrency(), 1, config.queueCapacity(), false, perTask("simulate", this::simulate)));
+        }
+        stages.add(new Stage("broadcast", config.broadcastConcurrency(), 1, config.queueCapacity(), false, perTask("broadcast", this::broadcast)));
+        for (int i = 0; i < stages.size() - 1; i++) {
+            stages.get(i).next = stages.get(i + 1);
+        }
+    }
+
+    public GopherTxPipeline start() {
+        stages.forEach(Stage::start);
+        return this;
+    }
+
+    /**
+     * 提交一个账户，第一个阶段队列满时阻塞
+     *
+     * @return 广播成功后完成的 tx hash
+     */
+    public CompletableFuture<String> submit(
+            FullAccountContext fullAccountContext, AppendLogger logger
+    ) throws InterruptedException {
+        TxTask task = new TxTask(fullAccountContext, logger);
+        results.add(task.result);
+        stages.getFirst().input.put(task);
+        return task.result;
+    }
+
+    /**
+     * 不再接收新账户，等待所有已提交账户走完流水线，包括广播后还在等待上链确认的账户（由确认超时兜底）
+     */
+    public void awaitCompletion() throws InterruptedException {
+        stages.getFirst().inputClosed = true;
+        for (Stage stage : stages) {
+            for (Thread worker : stage.workers) {
+                worker.join();
+            }
+        }
+        try {
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get();
+        } catch (ExecutionException e) {
+            // 单个账户的失败已经计入 failCount 并记录日志
+        }
+    }
+
+    public int getSuccessCount() {
+        return successCount.get();
+    }
+
+    public int getFailCount() {
+        return failCount.get();
+    }
+
+    private void query(TxTask task) throws Exception {
+        FullAccountContext fullAccountContext = task.fullAccountContext;
+        task.walletInfo = GopherApiImpl.checkAndGetGopherWallet(fullAccountContext);
+        if (kind == TxKind.STAKE) {
+            GopherAmount balance = rpcClient.queryBalanceAmount(
+                    fullAccountContext, task.walletInfo, GopherRpcClient.ORIGIN_TOKEN_DENOM
+            ).get();
+            if (balance.isLessThan(GopherApiImpl.STAKE_MIN_BALANCE)) {
+                throw new IllegalArgumentException("No $GOAI balance, less than 1.1. " + balance);
+            }
+            task.amount = GopherApiImpl.randomStakeAmount(balance, minPercent, maxPercent);
+        } else {
+            GopherAmount stakedBalance = rpcClient.queryStakedBalance(fullAccountContext, task.walletInfo).get();
+            fullAccountContext.putParam(GopherApiImpl.GOAI_DELEGATED_BALANCE_KEY, stakedBalance.toDouble());
+            if (stakedBalance.isLessThan(GopherAmount.ONE)) {
+                throw new IllegalArgumentException("No staked balance, less than 1. " + stakedBalance);
+            }
+            task.amount = GopherApiImpl.randomUnStakeAmount(stakedBalance, minPercent, maxPercent);
+        }
+        task.logger.info("Start %s...%s".formatted(kind == TxKind.STAKE ? "stake" : "un stake", task.amount));
+    }
+
+    private void prepare(TxTask task) throws Exception {
+        CompletableFuture<GopherCosmosSigner> prepareTx = kind == TxKind.STAKE
+                ? rpcClient.prepareStakeTx(task.fullAccountContext, task.walletInfo, task.amount)
+                : rpcClient.prepareUnStakeTx(task.fullAccountContext, task.walletInfo, task.amount);
+        GopherCosmosSigner signer = prepareTx.get();
+        Pair<Long, Long> accountNumberAndSequence = sequenceManager.acquire(task.fullAccountContext, task.walletInfo).get();
+        task.sequence = accountNumberAndSequence.getValue();
+        signer.accountNumber(accountNumberAndSequence.getKey())
+                .sequence(accountNumberAndSequence.getValue());
+        task.signer = signer;
+        task.signRequest = signer.prepare(GopherApiImpl.getGopherKey(task.fullAccountContext, task.walletInfo));
+    }
+
+    private void sign(List<TxTask> tasks) {
+        List<GopherCosmosSigner.SignRequest> requests = new ArrayList<>(tasks.size());
+        for (TxTask task : tasks) {
+            requests.add(task.signRequest);
+        }
+        // 单个请求签名失败只让该账户失败，同批其它账户继续进入下一阶段
+        List<CompletableFuture<String>> results = GopherCosmosSigner.signBatch(requests);
+        for (int i = 0; i < tasks.size(); i++) {
+            TxTask task = tasks.get(i);
+            try {
+                task.txBase64 = results.get(i).join();
+            } catch (CompletionException e) {
+                fail(task, "sign", GopherAsyncApiImpl.unwrap(e));
+            }
+        }
+    }
+
+    private void simulate(TxTask task) throws Exception {
+        ServiceOuterClass.SimulateResponse response = rpcClient.simulateTx(
+                task.fullAccountContext, task.signRequest.txRaw()
+        ).get();
+        task.txBase64 = rpcClient.applySimulation(
+                task.signer, () -> GopherAsyncApiImpl.getKey(task.fullAccountContext, task.walletInfo), response, task.txBase64
+        );
+    }
+
+    private void broadcast(TxTask task) throws Exception {
+        String txHash = rpcClient.broadcastTxBase64(task.fullAccountContext, task.txBase64).get();
+        sequenceManager.onTxSuccess(task.walletInfo.getAddress(), task.sequence);
+        task.sequence = null;
+        // 上链确认不占用广播线程，确认结果到达后再结束任务
+        rpcClient.awaitConfirmation(txHash, task.signer.messageTypeUrls()).whenComplete((confirmation, e) -> {
+            if (e != null) {
+                fail(task, "confirm", GopherAsyncApiImpl.unwrap(e));
+                return;
+            }
+            task.logger.info("%s success, amount[%s]-gasFee[%s] tx hash: %s".formatted(
+                    kind == TxKind.STAKE ? "stake" : "un stake", task.signer.getAmount(), task.signer.getFeeAmount(), txHash
+            ));
+            successCount.incrementAndGet();
+            task.result.complete(txHash);
+        });
+    }
+
+    private void fail(TxTask task, String stageName, Throwable e) {
+        if (task.result.isDone()) {
+            return;
+        }
+        failCount.incrementAndGet();
+        if (task.sequence != null) {
+            sequenceManager.onTxFailed(task.walletInfo.getAddress(), task.sequence, e);
+        }
+        if (task.signRequest != null) {
+            // prepare 之后、签名之前失败时私钥副本还没被 sign 清零
+            task.signRequest.discard();
+        }
+        task.logger.error("%s stage [%s] fail, %s".formatted(kind, stageName, e.getMessage()));
+        task.result.completeExceptionally(e);
+    }
+
+    private StageHandler perTask(String stageName, TaskHandler handler) {
+        return tasks -> {
+            for (TxTask task : tasks) {
+                try {
+                    handler.handle(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                } catch (Exception e) {
+                    fail(task, stageName, e);
+                }
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface TaskHandler {
+        void handle(TxTask task) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface StageHandler {
+        void handle(List<TxTask> tasks) throws Exception;
+    }
+
+    private static final class TxTask {
+        private final FullAccountContext fullAccountContext;
+        private final AppendLogger logger;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private WalletInfo walletInfo;
+        private GopherAmount amount;
+        private GopherCosmosSigner signer;
+        private GopherCosmosSigner.SignRequest signRequest;
+        private String txBase64;
+        /**
+         * 已领取但还没有反馈结果的 sequence
+         */
+        private Long sequence;
+
+        private TxTask(FullAccountContext fullAccountContext, AppendLogger logger) {
+            this.fullAccountContext = fullAccountContext;
+            this.logger = logger;
+        }
+    }
+
+    private final class Stage {
+        private final String name;
+        private final int concurrency;
+        private final int batchSize;
+        private final BlockingQueue<TxTask> input;
+        private final StageHandler handler;
+        private final boolean cpuBound;
+        private final List<Thread> workers = new ArrayList<>();
+        private final AtomicInteger alive;
+        private volatile boolean inputClosed = false;
+        private Stage next;
+
+        private Stage(String name, int concurrency, int batchSize, int queueCapacity, boolean cpuBound, StageHandler handler) {
+            this.name = name;
+            this.cpuBound = cpuBound;
+            this.concurrency = Math.max(1, concurrency);
+            this.batchSize = Math.max(1, batchSize);
+            this.input = new ArrayBlockingQueue<>(queueCapacity);
+            this.handler = handler;
+            this.alive = new AtomicInteger(this.concurrency);
+        }
+
+        private void start() {
+            for (int i = 0; i < concurrency; i++) {
+                String threadName = "gopher-%s-%s-%d".formatted(kind.name().toLowerCase(), name, i);
+                // 网络阶段只是在等 IO，用虚拟线程；签名阶段是 CPU 密集，留在平台线程
+                Thread.Builder builder = cpuBound
+                        ? Thread.ofPlatform().name(threadName).daemon(true)
+                        : Thread.ofVirtual().name(threadName);
+                workers.add(builder.start(this::runWorker));
+            }
+        }
+
+        private void runWorker() {
+            List<TxTask> batch = new ArrayList<>(batchSize);
+            try {
+                while (true) {
+                    TxTask first = input.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (inputClosed && input.isEmpty()) {
+                            break;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    input.drainTo(batch, batchSize - 1);
+                    handleBatch(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(task -> fail(task, name, e));
+                input.forEach(task -> fail(task, name, e));
+            } finally {
+                if (alive.decrementAndGet() == 0 && next != null) {
+                    next.inputClosed = true;
+                }
+            }
+        }
+
+        private void handleBatch(List<TxTask> batch) throws InterruptedException {
+            try {
+                handler.handle(batch);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("pipeline stage [{}] error", name, e);
+                batch.forEach(task -> fail(task, name, e));
+                return;
+            }
+            if (next == null) {
+                return;
+            }
+            for (TxTask task : batch) {
+                if (!task.result.isDone()) {
+                    next.input.put(task);
+                }
+            }
+        }
+    }
+}
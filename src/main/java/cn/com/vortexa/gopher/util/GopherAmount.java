@@ -0,0 +1,181 @@
+package cn.com.vortexa.gopher.util;
+
+
+/**
+ * 以最小单位（micro，10^-6）保存的定点金额，不可变
+ * <p>
+ * 余额、质押、手续费、gas 计算都用 long 完成，不经过 double / BigDecimal，大额余额下也没有舍入误差；
+ * 溢出时抛 ArithmeticException
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public final class GopherAmount implements Comparable<GopherAmount> {
+    public static final int DECIMALS = 6;
+    public static final long MICRO_PER_UNIT = 1_000_000L;
+
+    public static final GopherAmount ZERO = new GopherAmount(0);
+    public static final GopherAmount ONE = new GopherAmount(MICRO_PER_UNIT);
+
+    private final long micro;
+
+    private GopherAmount(long micro) {
+        this.micro = micro;
+    }
+
+    public static GopherAmount ofMicro(long micro) {
+        return micro == 0 ? ZERO : new GopherAmount(micro);
+    }
+
+    /**
+     * 链上最小单位的整数字符串，如 Coin.amount
+     */
+    public static GopherAmount parseMicro(String micro) {
+        return ofMicro(GopherProtoDecoder.parseAmount(micro));
+    }
+
+    /**
+     * 十进制字符串，如 "12.3456789"，超过 6 位的小数直接截断
+     */
+    public static GopherAmount parse(String decimal) {
+        String value = decimal.trim();
+        boolean negative = value.startsWith("-");
+        int start = negative || value.startsWith("+") ? 1 : 0;
+        long integer = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        boolean hasDigit = false;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && !inFraction) {
+                inFraction = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("invalid amount: " + decimal);
+            }
+            hasDigit = true;
+            if (!inFraction) {
+                integer = Math.addExact(Math.multiplyExact(integer, 10), c - '0');
+            } else if (fractionDigits < DECIMALS) {
+                fraction = fraction * 10 + (c - '0');
+                fractionDigits++;
+            }
+        }
+        if (!hasDigit) {
+            throw new NumberFormatException("invalid amount: " + decimal);
+        }
+        for (; fractionDigits < DECIMALS; fractionDigits++) {
+            fraction *= 10;
+        }
+        long micro = Math.addExact(Math.multiplyExact(integer, MICRO_PER_UNIT), fraction);
+        return ofMicro(negative ? -micro : micro);
+    }
+
+    /**
+     * gas * 单价，向上取整；单价为 priceNumerator / priceDenominator micro
+     */
+    public static GopherAmount gasFee(long gasLimit, long priceNumerator, long priceDenominator) {
+        long fee = Math.multiplyExact(gasLimit, priceNumerator);
+        return ofMicro(Math.ceilDiv(fee, priceDenominator));
+    }
+
+    public long micro() {
+        return micro;
+    }
+
+    public GopherAmount plus(GopherAmount other) {
+        return ofMicro(Math.addExact(micro, other.micro));
+    }
+
+    public GopherAmount minus(GopherAmount other) {
+        return ofMicro(Math.subtractExact(micro, other.micro));
+    }
+
+    /**
+     * this * numerator / denominator，向下取整，先除后乘避免中间结果溢出
+     */
+    public GopherAmount mulRatio(long numerator, long denominator) {
+        long quotient = micro / denominator;
+        long remainder = micro % denominator;
+        return ofMicro(Math.addExact(
+                Math.multiplyExact(quotient, numerator),
+                Math.multiplyExact(remainder, numerator) / denominator
+        ));
+    }
+
+    public GopherAmount min(GopherAmount other) {
+        return micro <= other.micro ? this : other;
+    }
+
+    public GopherAmount max(GopherAmount other) {
+        return micro >= other.micro ? this : other;
+    }
+
+    public boolean isLessThan(GopherAmount other) {
+        return micro < other.micro;
+    }
+
+    /**
+     * 仅用于展示或写入账户参数
+     */
+    public double toDouble() {
+        return (double) micro / MICRO_PER_UNIT;
+    }
+
+    /**
+     * 最小单位整数字符串
+     */
+    public String toMicroString() {
+        return Long.toString(micro);
+    }
+
+    /**
+     * 十进制字符串，去掉末尾的 0，如 "12.5"、"3"
+     */
+    public String toPlainString() {
+        long abs = Math.abs(micro);
+        long integer = abs / MICRO_PER_UNIT;
+        long fraction = abs % MICRO_PER_UNIT;
+        StringBuilder sb = new StringBuilder(24);
+        if (micro < 0) {
+            sb.append('-');
+        }
+        sb.append(integer);
+        if (fraction != 0) {
+            int digits = DECIMALS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            sb.append('.');
+            String fractionStr = Long.toString(fraction);
+            for (int i = fractionStr.length(); i < digits; i++) {
+                sb.append('0');
+            }
+            sb.append(fractionStr);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int compareTo(GopherAmount other) {
+        return Long.compare(micro, other.micro);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GopherAmount other && other.micro == micro;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(micro);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString();
+    }
+}
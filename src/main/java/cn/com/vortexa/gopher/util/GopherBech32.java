@@ -0,0 +1,243 @@
+package cn.com.vortexa.gopher.util;
+
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查表实现的 Bech32 编解码（BIP-173）
+ * <p>
+ * polymod 每步的生成多项式异或值预先算成 32 项的表，gopher / gophervaloper 两个前缀展开后的 polymod 状态预先缓存；
+ * 编码全程只用基本类型数组，不装箱
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public final class GopherBech32 {
+    public static final String ACCOUNT_HRP = "gopher";
+    public static final String VALIDATOR_HRP = "gophervaloper";
+
+    private static final int MAX_LENGTH = 90;
+    private static final int CHECKSUM_LENGTH = 6;
+
+    private static final char[] CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l".toCharArray();
+    private static final byte[] CHARSET_REV = new byte[128];
+    private static final int[] GENERATOR_TABLE = new int[32];
+
+    private static final Map<String, Integer> HRP_STATES = new ConcurrentHashMap<>();
+
+    static {
+        Arrays.fill(CHARSET_REV, (byte) -1);
+        for (int i = 0; i < CHARSET.length; i++) {
+            CHARSET_REV[CHARSET[i]] = (byte) i;
+            CHARSET_REV[Character.toUpperCase(CHARSET[i])] = (byte) i;
+        }
+        int[] generator = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+        for (int top = 0; top < 32; top++) {
+            int value = 0;
+            for (int i = 0; i < 5; i++) {
+                if (((top >> i) & 1) == 1) {
+                    value ^= generator[i];
+                }
+            }
+            GENERATOR_TABLE[top] = value;
+        }
+        HRP_STATES.put(ACCOUNT_HRP, computeHrpState(ACCOUNT_HRP));
+        HRP_STATES.put(VALIDATOR_HRP, computeHrpState(VALIDATOR_HRP));
+    }
+
+    private GopherBech32() {
+    }
+
+    /**
+     * 解码结果，data 为转换回 8 bit 的原始字节
+     */
+    public record Decoded(String hrp, byte[] data) {
+    }
+
+    /**
+     * 8 bit 数据编码为地址
+     */
+    public static String encode(String hrp, byte[] data) {
+        char[] out = new char[encodedLength(hrp, data.length)];
+        return new String(out, 0, encodeInto(hrp, hrpState(hrp), data, out));
+    }
+
+    /**
+     * 解码并校验 checksum，返回 8 bit 数据；格式不合法时抛 IllegalArgumentException
+     */
+    public static Decoded decode(String address) {
+        int length = address.length();
+        if (length < 8 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("invalid bech32 length: " + length);
+        }
+        boolean lower = false;
+        boolean upper = false;
+        int separator = -1;
+        for (int i = 0; i < length; i++) {
+            char c = address.charAt(i);
+            if (c < 33 || c > 126) {
+                throw new IllegalArgumentException("invalid bech32 character at " + i);
+            }
+            if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            }
+            if (c == '1') {
+                separator = i;
+            }
+        }
+        if (lower && upper) {
+            throw new IllegalArgumentException("mixed case bech32 address");
+        }
+        if (separator < 1 || separator + CHECKSUM_LENGTH + 1 > length) {
+            throw new IllegalArgumentException("invalid bech32 separator position");
+        }
+
+        String hrp = address.substring(0, separator).toLowerCase(Locale.ROOT);
+        int chk = hrpState(hrp);
+        int wordCount = length - separator - 1;
+        byte[] words = new byte[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            char c = address.charAt(separator + 1 + i);
+            byte word = CHARSET_REV[c];
+            if (word < 0) {
+                throw new IllegalArgumentException("invalid bech32 character: " + c);
+            }
+            words[i] = word;
+            chk = step(chk, word);
+        }
+        if (chk != 1) {
+            throw new IllegalArgumentException("invalid bech32 checksum");
+        }
+        return new Decoded(hrp, fromWords(words, 0, wordCount - CHECKSUM_LENGTH));
+    }
+
+    /**
+     * 地址格式、checksum 正确且前缀为 expectedHrp
+     */
+    public static boolean isValid(String address, String expectedHrp) {
+        if (address == null) {
+            return false;
+        }
+        try {
+            return decode(address).hrp().equals(expectedHrp);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 8 bit 转 5 bit，不足 5 bit 的尾部补 0
+     */
+    public static byte[] toWords(byte[] bytes) {
+        byte[] out = new byte[(bytes.length * 8 + 4) / 5];
+        int value = 0;
+        int bits = 0;
+        int index = 0;
+        for (byte b : bytes) {
+            value = (value << 8) | (b & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                out[index++] = (byte) ((value >>> bits) & 31);
+            }
+        }
+        if (bits > 0) {
+            out[index] = (byte) ((value << (5 - bits)) & 31);
+        }
+        return out;
+    }
+
+    /**
+     * 5 bit 转回 8 bit，填充位必须为 0 且不超过 4 bit
+     */
+    public static byte[] fromWords(byte[] words, int offset, int length) {
+        byte[] out = new byte[length * 5 / 8];
+        int value = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << 5) | words[i];
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                out[index++] = (byte) ((value >>> bits) & 0xff);
+            }
+        }
+        if (bits >= 5 || (value & ((1 << bits) - 1)) != 0) {
+            throw new IllegalArgumentException("invalid bech32 padding");
+        }
+        return out;
+    }
+
+    private static int encodedLength(String hrp, int dataLength) {
+        return hrp.length() + 1 + (dataLength * 8 + 4) / 5 + CHECKSUM_LENGTH;
+    }
+
+    /**
+     * 直接把 hrp、5 bit 数据、checksum 写入 out，边转换边累计 polymod，返回写入长度
+     */
+    private static int encodeInto(String hrp, int hrpState, byte[] data, char[] out) {
+        int pos = 0;
+        for (int i = 0; i < hrp.length(); i++) {
+            out[pos++] = hrp.charAt(i);
+        }
+        out[pos++] = '1';
+
+        int chk = hrpState;
+        int value = 0;
+        int bits = 0;
+        for (byte b : data) {
+            value = (value << 8) | (b & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                int word = (value >>> bits) & 31;
+                chk = step(chk, word);
+                out[pos++] = CHARSET[word];
+            }
+        }
+        if (bits > 0) {
+            int word = (value << (5 - bits)) & 31;
+            chk = step(chk, word);
+            out[pos++] = CHARSET[word];
+        }
+
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            chk = step(chk, 0);
+        }
+        chk ^= 1;
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            out[pos++] = CHARSET[(chk >>> (5 * (5 - i))) & 31];
+        }
+        return pos;
+    }
+
+    private static int hrpState(String hrp) {
+        Integer cached = HRP_STATES.get(hrp);
+        return cached != null ? cached : computeHrpState(hrp);
+    }
+
+    /**
+     * hrp 展开（高 3 bit、0、低 5 bit）后的 polymod 状态
+     */
+    private static int computeHrpState(String hrp) {
+        int chk = 1;
+        for (int i = 0; i < hrp.length(); i++) {
+            chk = step(chk, hrp.charAt(i) >> 5);
+        }
+        chk = step(chk, 0);
+        for (int i = 0; i < hrp.length(); i++) {
+            chk = step(chk, hrp.charAt(i) & 31);
+        }
+        return chk;
+    }
+
+    private static int step(int chk, int value) {
+        return ((chk & 0x1ffffff) << 5) ^ value ^ GENERATOR_TABLE[chk >>> 25];
+    }
+}
@@ -1,65 +1,56 @@
 package cn.com.vortexa.gopher.util;
 
+import com.alibaba.fastjson.JSONObject;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
+import com.google.protobuf.WireFormat;
 import cosmos.base.v1beta1.CoinOuterClass;
 import cosmos.crypto.ed25519.Keys;
 import cosmos.gov.v1beta1.Gov;
-import cosmos.staking.v1beta1.Tx;
 import cosmos.tx.signing.v1beta1.Signing;
 import cosmos.tx.v1beta1.TxOuterClass;
 import lombok.Getter;
-import org.bitcoinj.crypto.ChildNumber;
 import org.bitcoinj.crypto.DeterministicKey;
-import org.bitcoinj.crypto.HDUtils;
-import org.bitcoinj.wallet.DeterministicKeyChain;
-import org.bitcoinj.wallet.DeterministicSeed;
 import org.bitcoinj.wallet.UnreadableWalletException;
-import org.bouncycastle.crypto.digests.SHA256Digest;
-import org.bouncycastle.crypto.params.ECDomainParameters;
-import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
-import org.bouncycastle.crypto.signers.ECDSASigner;
-import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
-import org.bouncycastle.math.ec.custom.sec.SecP256K1Curve;
-
-import java.math.BigInteger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 @Getter
 public class GopherCosmosSigner {
-    private String delegatorAddress;
-    private String validatorAddress;
-    private String amount;
+    private static final ForkJoinPool SIGN_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private static final ByteString PUB_KEY_TYPE_URL = ByteString.copyFromUtf8("/cosmos.crypto.secp256k1.PubKey");
+
+    /**
+     * 交易主要金额，仅用于日志展示，消息本身见 messages
+     */
+    private GopherAmount amount;
     private String denom;
-    private String msgTypeUrl;
     private long sequence;
     private long gasLimit;
-    private String feeAmount;
+    private GopherAmount feeAmount;
     private String feeDenom;
     private String chainId;
     private long accountNumber;
 
-    private long proposalId;
-    private String voter;
-    private Gov.VoteOption option;
-
+    /**
+     * 交易消息，由 {@link GopherMsgRegistry} 编码
+     */
+    private final List<Any> messages = new ArrayList<>();
 
     public static GopherCosmosSigner builder() {
         return new GopherCosmosSigner();
     }
 
-    public GopherCosmosSigner delegatorAddress(String delegatorAddress) {
-        this.delegatorAddress = delegatorAddress;
-        return this;
-    }
-
-    public GopherCosmosSigner validatorAddress(String validatorAddress) {
-        this.validatorAddress = validatorAddress;
-        return this;
-    }
-
-    public GopherCosmosSigner amount(String amount) {
+    public GopherCosmosSigner amount(GopherAmount amount) {
         this.amount = amount;
         return this;
     }
@@ -69,11 +60,6 @@ public class GopherCosmosSigner {
         return this;
     }
 
-    public GopherCosmosSigner msgTypeUrl(String msgTypeUrl) {
-        this.msgTypeUrl = msgTypeUrl;
-        return this;
-    }
-
     public GopherCosmosSigner sequence(long sequence) {
         this.sequence = sequence;
         return this;
@@ -84,7 +70,7 @@ public class GopherCosmosSigner {
         return this;
     }
 
-    public GopherCosmosSigner feeAmount(String feeAmount) {
+    public GopherCosmosSigner feeAmount(GopherAmount feeAmount) {
         this.feeAmount = feeAmount;
         return this;
     }
@@ -104,42 +90,89 @@ public class GopherCosmosSigner {
         return this;
     }
 
-    public GopherCosmosSigner proposalId(long proposalId) {
-        this.proposalId = proposalId;
+    /**
+     * 追加一条消息，多条消息放进同一个 TxBody，共用一次 gas 估算和一个签名
+     */
+    public GopherCosmosSigner addMessage(Any message) {
+        this.messages.add(message);
+        return this;
+    }
+
+    public GopherCosmosSigner addMessage(Message message) {
+        this.messages.add(GopherMsgRegistry.pack(message));
+        return this;
+    }
+
+    /**
+     * 追加 hub 接口返回的 JSON 消息，按 typeUrl 找编码器
+     */
+    public GopherCosmosSigner addMessage(String typeUrl, JSONObject value) {
+        this.messages.add(GopherMsgRegistry.fromJson(typeUrl, value));
         return this;
     }
-    public GopherCosmosSigner voter(String voter) {
-        this.voter = voter;
+
+    public GopherCosmosSigner addMessages(List<Any> messages) {
+        this.messages.addAll(messages);
         return this;
     }
-    public GopherCosmosSigner option(Gov.VoteOption option) {
-        this.option = option;
+
+    /**
+     * 使用本地估算的 gas limit 与手续费
+     */
+    public GopherCosmosSigner gasPlan(GopherGasEstimator.GasPlan plan) {
+        this.gasLimit = plan.gasLimit();
+        this.feeAmount = plan.fee();
         return this;
     }
 
+    /**
+     * 各消息的 type url，顺序与消息一致，用于 gas 估算
+     */
+    public List<String> messageTypeUrls() {
+        List<String> typeUrls = new ArrayList<>(messages.size());
+        for (Any message : messages) {
+            typeUrls.add(message.getTypeUrl());
+        }
+        return typeUrls;
+    }
+
     public String buildTxBase64(
             String mnemonic
     ) throws UnreadableWalletException {
-        DeterministicSeed seed = new DeterministicSeed(mnemonic, null, "", 0);
-        DeterministicKeyChain keyChain = DeterministicKeyChain.builder().seed(seed).build();
-        List<ChildNumber> path = HDUtils.parsePath("44H/118H/0H/0/0"); // Cosmos BIP44
-        DeterministicKey key = keyChain.getKeyByPath(path, true);
+        DeterministicKey key = GopherWalletUtil.deriveCosmosKey(mnemonic);
+        GopherKey gopherKey = new GopherKey(null, key.getPrivKeyBytes(), key.getPubKey());
+        try {
+            return sign(prepare(gopherKey));
+        } finally {
+            gopherKey.destroy();
+        }
+    }
 
+    public String buildTxBase64(GopherKey key) {
+        return sign(prepare(key));
+    }
+
+    /**
+     * 构造 TxBody / AuthInfo / SignDoc，返回待签名请求，可交给 {@link #signBatch(List)} 批量签名
+     */
+    public SignRequest prepare(GopherKey key) {
         // -------------------------------
         // 2️⃣ 构造 TxBody
-        TxOuterClass.TxBody txBody = switch (msgTypeUrl) {
-            case "/cosmos.gov.v1beta1.MsgVote" -> buildVote();
-            case "/cosmos.staking.v1beta1.MsgDelegate" -> buildStake();
-            case "/cosmos.staking.v1beta1.MsgUndelegate" -> buildUnStake();
-            default -> throw new IllegalStateException("Unexpected value: " + msgTypeUrl);
-        };
+        if (messages.isEmpty()) {
+            throw new IllegalStateException("tx has no message");
+        }
+        TxOuterClass.TxBody txBody = TxOuterClass.TxBody.newBuilder()
+                .addAllMessages(messages)
+                .setMemo("")
+                .setTimeoutHeight(0)
+                .build();
         // -------------------------------
         // 4️⃣ AuthInfo
         Keys.PubKey pubKey = Keys.PubKey.newBuilder()
-                .setKey(ByteString.copyFrom(key.getPubKey()))
+                .setKey(ByteString.copyFrom(key.publicKey()))
                 .build();
         Any pubKeyAny = Any.newBuilder()
-                .setTypeUrl("/cosmos.crypto.secp256k1.PubKey")
+                .setTypeUrlBytes(PUB_KEY_TYPE_URL)
                 .setValue(pubKey.toByteString())
                 .build();
 
@@ -154,135 +187,175 @@ public class GopherCosmosSigner {
                         .setSequence(sequence)
                         .build())
                 .setFee(TxOuterClass.Fee.newBuilder()
-                        .addAmount(CoinOuterClass.Coin.newBuilder().setDenom(feeDenom).setAmount(feeAmount).build())
+                        .addAmount(CoinOuterClass.Coin.newBuilder().setDenom(feeDenom).setAmount(feeAmount.toMicroString()).build())
                         .setGasLimit(gasLimit)
                         .build())
                 .build();
         // -------------------------------
-        // 5️⃣ SignDoc
-        TxOuterClass.SignDoc signDoc = TxOuterClass.SignDoc.newBuilder()
-                .setBodyBytes(txBody.toByteString())
-                .setAuthInfoBytes(authInfo.toByteString())
-                .setChainId(chainId)
-                .setAccountNumber(accountNumber)
-                .build();
+        // 5️⃣ SignDoc，body / authInfo 各只序列化一次，TxRaw 直接复用这两段字节
+        ByteString bodyBytes = txBody.toByteString();
+        ByteString authInfoBytes = authInfo.toByteString();
+        return new SignRequest(
+                encodeSignDoc(bodyBytes, authInfoBytes, chainId, accountNumber),
+                encodeUnsignedTxRaw(bodyBytes, authInfoBytes),
+                key.copyPrivateKey()
+        );
+    }
 
-        byte[] signature = secp256k1SignCanonical(key.getPrivKeyBytes(), signDoc.toByteArray());
+    /**
+     * 签名并组装 TxRaw，返回 base64
+     * <p>
+     * 签名直接写进 TxRaw 末尾预留的 64 字节，不再经过 TxRaw builder 拷贝；签名后清零请求里的私钥副本
+     */
+    public static String sign(SignRequest request) {
+        byte[] signDoc = request.signDoc();
+        byte[] txRaw = request.txRaw();
+        byte[] privateKey = request.privateKey();
+        try {
+            // -------------------------------
+            // 7️⃣ TxRaw
+            GopherSecp256k1.sign(
+                    privateKey,
+                    signDoc, 0, signDoc.length,
+                    txRaw, txRaw.length - GopherSecp256k1.SIGNATURE_LENGTH
+            );
+        } finally {
+            Arrays.fill(privateKey, (byte) 0);
+        }
+        return Base64.getEncoder().encodeToString(txRaw);
+    }
 
-        // -------------------------------
-        // 7️⃣ TxRaw
-        TxOuterClass.TxRaw txRaw = TxOuterClass.TxRaw.newBuilder()
-                .setBodyBytes(txBody.toByteString())
-                .setAuthInfoBytes(authInfo.toByteString())
-                .addSignatures(ByteString.copyFrom(signature))
-                .build();
-        return Base64.getEncoder().encodeToString(txRaw.toByteArray());
+    /**
+     * 签名用的有界线程池（按核数），批量签名与异步模式的单笔签名、派生密钥共用，CPU 密集线程总数不超过核数
+     */
+    public static Executor signExecutor() {
+        return SIGN_POOL;
     }
 
-    private TxOuterClass.TxBody buildStake() {
-        Tx.MsgDelegate msg = Tx.MsgDelegate.newBuilder()
-                .setDelegatorAddress(delegatorAddress)
-                .setValidatorAddress(validatorAddress)
-                .setAmount(CoinOuterClass.Coin.newBuilder().setDenom(denom).setAmount(amount).build())
-                .build();
+    /**
+     * 在有界的 fork-join 池里并行签名，返回的结果与 requests 顺序一致
+     * <p>
+     * 每个请求单独成败：某个请求签名失败只让它对应的 future 异常结束，不影响同批其它请求，其它请求的私钥副本照常签名后清零
+     */
+    public static List<CompletableFuture<String>> signBatch(List<SignRequest> requests) {
+        if (requests.size() < 2) {
+            return requests.stream().map(GopherCosmosSigner::trySign).toList();
+        }
+        return SIGN_POOL.submit(
+                () -> requests.parallelStream().map(GopherCosmosSigner::trySign).toList()
+        ).join();
+    }
 
-        // -------------------------------
-        // 3️⃣ TxBody
-        Any anyMsg = Any.newBuilder()
-                .setTypeUrl(msgTypeUrl)
-                .setValue(msg.toByteString())
-                .build();
-        return TxOuterClass.TxBody.newBuilder()
-                .addMessages(anyMsg)
-                .setMemo("")
-                .setTimeoutHeight(0)
-                .build();
+    private static CompletableFuture<String> trySign(SignRequest request) {
+        try {
+            return CompletableFuture.completedFuture(sign(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
-    private TxOuterClass.TxBody buildVote() {
-        // 1️⃣ 构造 MsgVote
-        cosmos.gov.v1beta1.Tx.MsgVote msgVote = cosmos.gov.v1beta1.Tx.MsgVote.newBuilder()
-                .setProposalId(proposalId) // proposalId 是 long
-                .setVoter(voter)
-                .setOption(option) // VOTE_OPTION_YES / NO / ABSTAIN / NO_WITH_VETO
-                .build();
+    /**
+     * 待签名请求，signDoc 为 SignDoc 序列化字节，txRaw 为末尾留出签名位置的 TxRaw 字节，
+     * privateKey 为 prepare 时取出的私钥副本，只能签名一次；重新签名需要重新从密钥缓存取 GopherKey
+     */
+    public record SignRequest(byte[] signDoc, byte[] txRaw, byte[] privateKey) {
+        /**
+         * 清零私钥副本，请求在签名前被放弃时调用
+         */
+        public void discard() {
+            Arrays.fill(privateKey, (byte) 0);
+        }
+    }
 
-        // 2️⃣ 打包成 Any，用于 TxBody
-        Any anyMsg = Any.newBuilder()
-                .setTypeUrl("/cosmos.gov.v1beta1.MsgVote")
-                .setValue(msgVote.toByteString())
-                .build();
-        return TxOuterClass.TxBody.newBuilder()
-                .addMessages(anyMsg)
-                .setMemo("")
-                .setTimeoutHeight(0)
-                .build();
+    /**
+     * 按 SignDoc 字段顺序手工编码到精确大小的数组，与 protobuf 生成代码一致省略默认值字段
+     */
+    static byte[] encodeSignDoc(ByteString bodyBytes, ByteString authInfoBytes, String chainId, long accountNumber) {
+        boolean hasChainId = chainId != null && !chainId.isEmpty();
+        int size = CodedOutputStream.computeBytesSize(1, bodyBytes)
+                + CodedOutputStream.computeBytesSize(2, authInfoBytes)
+                + (hasChainId ? CodedOutputStream.computeStringSize(3, chainId) : 0)
+                + (accountNumber != 0 ? CodedOutputStream.computeUInt64Size(4, accountNumber) : 0);
+        byte[] out = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        try {
+            output.writeBytes(1, bodyBytes);
+            output.writeBytes(2, authInfoBytes);
+            if (hasChainId) {
+                output.writeString(3, chainId);
+            }
+            if (accountNumber != 0) {
+                output.writeUInt64(4, accountNumber);
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("encode SignDoc error", e);
+        }
+        return out;
     }
 
-    private TxOuterClass.TxBody buildUnStake() {
-        Tx.MsgUndelegate msg = Tx.MsgUndelegate.newBuilder()
-                .setDelegatorAddress(delegatorAddress)
-                .setValidatorAddress(validatorAddress)
-                .setAmount(CoinOuterClass.Coin.newBuilder().setDenom(denom).setAmount(amount).build())
-                .build();
+    /**
+     * 编码 TxRaw{body_bytes, auth_info_bytes, signatures[0]}，signatures[0] 的 64 字节留空等待签名
+     */
+    static byte[] encodeUnsignedTxRaw(ByteString bodyBytes, ByteString authInfoBytes) {
+        int size = CodedOutputStream.computeBytesSize(1, bodyBytes)
+                + CodedOutputStream.computeBytesSize(2, authInfoBytes)
+                + CodedOutputStream.computeTagSize(3)
+                + CodedOutputStream.computeUInt32SizeNoTag(GopherSecp256k1.SIGNATURE_LENGTH)
+                + GopherSecp256k1.SIGNATURE_LENGTH;
+        byte[] out = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        try {
+            output.writeBytes(1, bodyBytes);
+            output.writeBytes(2, authInfoBytes);
+            output.writeTag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(GopherSecp256k1.SIGNATURE_LENGTH);
+            if (output.spaceLeft() != GopherSecp256k1.SIGNATURE_LENGTH) {
+                throw new IllegalStateException("unexpected TxRaw size");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("encode TxRaw error", e);
+        }
+        return out;
+    }
 
-        // -------------------------------
-        // 3️⃣ TxBody
-        Any anyMsg = Any.newBuilder()
-                .setTypeUrl(msgTypeUrl)
-                .setValue(msg.toByteString())
-                .build();
-        return TxOuterClass.TxBody.newBuilder()
-                .addMessages(anyMsg)
-                .setMemo("")
-                .setTimeoutHeight(0)
-                .build();
+    /**
+     * 构造 MsgVote，option: VOTE_OPTION_YES / NO / ABSTAIN / NO_WITH_VETO
+     */
+    public static Any voteMsg(long proposalId, String voter, Gov.VoteOption option) {
+        return GopherMsgRegistry.pack(cosmos.gov.v1beta1.Tx.MsgVote.newBuilder()
+                .setProposalId(proposalId)
+                .setVoter(voter)
+                .setOption(option)
+                .build());
     }
 
-    private static byte[] secp256k1SignCanonical(byte[] privKey, byte[] msg) {
-        // 1️⃣ SHA256
-        byte[] digest = new byte[32];
-        SHA256Digest sha256 = new SHA256Digest();
-        sha256.update(msg, 0, msg.length);
-        sha256.doFinal(digest, 0);
-
-        // 2️⃣ curve
-        SecP256K1Curve curve = new SecP256K1Curve();
-        BigInteger n = curve.getOrder();
-        BigInteger gx = new BigInteger("79BE667EF9DCBBAC55A06295CE870B07029BFCDB2DCE28D959F2815B16F81798", 16);
-        BigInteger gy = new BigInteger("483ADA7726A3C4655DA4FBFC0E1108A8FD17B448A68554199C47D08FFB10D4B8", 16);
-        ECDomainParameters domain = new ECDomainParameters(curve, curve.createPoint(gx, gy), n);
-
-        ECPrivateKeyParameters priv = new ECPrivateKeyParameters(new BigInteger(1, privKey), domain);
-        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
-        signer.init(true, priv);
-        BigInteger[] sig = signer.generateSignature(digest);
-
-        BigInteger r = sig[0];
-        BigInteger s = sig[1];
-
-        // 3️⃣ canonicalization: s <= n/2
-        if (s.compareTo(n.shiftRight(1)) > 0) {
-            s = n.subtract(s);
-        }
+    /**
+     * 构造 MsgDelegate，amount 以最小单位写入 Coin
+     */
+    public static Any delegateMsg(String delegator, String validator, GopherAmount amount, String denom) {
+        return GopherMsgRegistry.pack(cosmos.staking.v1beta1.Tx.MsgDelegate.newBuilder()
+                .setDelegatorAddress(delegator)
+                .setValidatorAddress(validator)
+                .setAmount(coin(amount, denom))
+                .build());
+    }
 
-        byte[] rb = toFixedLength(r.toByteArray(), 32);
-        byte[] sb = toFixedLength(s.toByteArray(), 32);
-        byte[] result = new byte[64];
-        System.arraycopy(rb, 0, result, 0, 32);
-        System.arraycopy(sb, 0, result, 32, 32);
-        return result;
+    /**
+     * 构造 MsgUndelegate，amount 以最小单位写入 Coin
+     */
+    public static Any undelegateMsg(String delegator, String validator, GopherAmount amount, String denom) {
+        return GopherMsgRegistry.pack(cosmos.staking.v1beta1.Tx.MsgUndelegate.newBuilder()
+                .setDelegatorAddress(delegator)
+                .setValidatorAddress(validator)
+                .setAmount(coin(amount, denom))
+                .build());
     }
 
-    private static byte[] toFixedLength(byte[] b, int length) {
-        byte[] r = new byte[length];
-        if (b.length > length) {
-            System.arraycopy(b, b.length - length, r, 0, length);
-        } else if (b.length < length) {
-            System.arraycopy(b, 0, r, length - b.length, b.length);
-        } else {
-            r = b;
-        }
-        return r;
+    private static CoinOuterClass.Coin coin(GopherAmount amount, String denom) {
+        return CoinOuterClass.Coin.newBuilder()
+                .setDenom(denom)
+                .setAmount(amount.toMicroString())
+                .build();
     }
 }
@@ -0,0 +1,225 @@
+package cn.com.vortexa.gopher.util;
+
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本地 gas 估算，按消息 type url 学习实际 gas_used
+ * <p>
+ * 模型为 gas = baseGas + Σ 每条消息的 gas；每个 type url 保留最近 windowSize 个单条消息 gas 样本，
+ * 样本数达到 minSamples 后取 percentile 分位数并加上安全余量，样本不足时用种子值（种子本身已偏保守，不再加余量）。
+ * 种子可以区分同类消息的第一条与后续每条，后续消息只增加存储读写的开销。
+ * 一笔交易含多条消息时，gas_used 扣掉 baseGas 后按当前估算值的比例分摊
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherGasEstimator {
+
+    /**
+     * @param baseGas          与消息无关的固定开销（验签、按字节计费等）
+     * @param percentile       取样本的分位数，如 0.95
+     * @param marginPercent    在学习值上追加的安全余量百分比
+     * @param minSamples       开始使用学习值所需的最少样本数
+     * @param windowSize       每个 type url 保留的样本数
+     * @param defaultMsgGas    既没有样本也没有种子的消息按此估算
+     * @param priceNumerator   gas 单价分子，单价为 priceNumerator / priceDenominator micro
+     * @param priceDenominator gas 单价分母
+     */
+    public record GasConfig(
+            long baseGas,
+            double percentile,
+            int marginPercent,
+            int minSamples,
+            int windowSize,
+            long defaultMsgGas,
+            long priceNumerator,
+            long priceDenominator
+    ) {
+        /**
+         * 0.025 ugoai / gas
+         */
+        public static final GasConfig DEFAULT = new GasConfig(50_000, 0.95, 20, 20, 256, 250_000, 25, 1000);
+    }
+
+    /**
+     * 估算结果
+     */
+    public record GasPlan(long gasLimit, GopherAmount fee) {
+    }
+
+    private final GasConfig config;
+    private final Map<String, MsgGasStats> statsByType = new ConcurrentHashMap<>();
+
+    public GopherGasEstimator(GasConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 带默认种子（默认 baseGas 50000 下）：投票单条共 200000 gas、每多一条追加 50000，与原先固定值一致；
+     * 质押相关按 hub 常见的 gasEstimate
+     */
+    public static GopherGasEstimator withDefaultSeeds(GasConfig config) {
+        GopherGasEstimator estimator = new GopherGasEstimator(config);
+        estimator.seed("/cosmos.gov.v1beta1.MsgVote", 150_000, 50_000);
+        estimator.seed("/cosmos.staking.v1beta1.MsgDelegate", 250_000);
+        estimator.seed("/cosmos.staking.v1beta1.MsgUndelegate", 250_000);
+        estimator.seed("/cosmos.staking.v1beta1.MsgBeginRedelegate", 300_000);
+        estimator.seed("/cosmos.bank.v1beta1.MsgSend", 50_000);
+        estimator.seed("/cosmos.distribution.v1beta1.MsgWithdrawDelegatorReward", 100_000);
+        return estimator;
+    }
+
+    public GasConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 设置没有样本时单条消息的 gas
+     */
+    public void seed(String typeUrl, long gasPerMsg) {
+        seed(typeUrl, gasPerMsg, gasPerMsg);
+    }
+
+    /**
+     * 设置没有样本时的 gas，交易里该类型的第一条按 firstMsgGas、之后每条按 extraMsgGas
+     */
+    public void seed(String typeUrl, long firstMsgGas, long extraMsgGas) {
+        MsgGasStats stats = stats(typeUrl);
+        stats.extraSeed = extraMsgGas;
+        stats.seed = firstMsgGas;
+    }
+
+    /**
+     * 记录一笔交易的实际 gas_used，typeUrls 为交易内各消息的 type url（可重复）
+     */
+    public void record(List<String> typeUrls, long gasUsed) {
+        if (typeUrls.isEmpty() || gasUsed <= 0) {
+            return;
+        }
+        long msgGas = Math.max(0, gasUsed - config.baseGas());
+        long[] estimates = msgEstimates(typeUrls);
+        long total = 0;
+        for (int i = 0; i < estimates.length; i++) {
+            estimates[i] = Math.max(1, estimates[i]);
+            total += estimates[i];
+        }
+        for (int i = 0; i < estimates.length; i++) {
+            // 按估算值比例分摊，先乘后除用 double 避免 long 溢出
+            long share = (long) ((double) msgGas * estimates[i] / total);
+            stats(typeUrls.get(i)).add(share);
+        }
+    }
+
+    public long estimateGas(List<String> typeUrls) {
+        long gas = config.baseGas();
+        for (long estimate : msgEstimates(typeUrls)) {
+            gas = Math.addExact(gas, estimate);
+        }
+        return gas;
+    }
+
+    public GasPlan plan(List<String> typeUrls) {
+        long gasLimit = estimateGas(typeUrls);
+        return new GasPlan(gasLimit, fee(gasLimit));
+    }
+
+    /**
+     * 已知实际 gas_used（如 Simulate 结果）时，加安全余量得到 gas limit
+     */
+    public GasPlan planWithMargin(long gasUsed) {
+        long gasLimit = Math.ceilDiv(Math.multiplyExact(gasUsed, 100 + config.marginPercent()), 100);
+        return new GasPlan(gasLimit, fee(gasLimit));
+    }
+
+    public GopherAmount fee(long gasLimit) {
+        return GopherAmount.gasFee(gasLimit, config.priceNumerator(), config.priceDenominator());
+    }
+
+    /**
+     * 已学习到的样本数，未见过的 type url 为 0
+     */
+    public int sampleCount(String typeUrl) {
+        MsgGasStats stats = statsByType.get(typeUrl);
+        return stats == null ? 0 : stats.count();
+    }
+
+    /**
+     * 每条消息的估算值，同类消息按出现顺序区分第一条与后续
+     */
+    private long[] msgEstimates(List<String> typeUrls) {
+        long[] estimates = new long[typeUrls.size()];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < estimates.length; i++) {
+            String typeUrl = typeUrls.get(i);
+            MsgGasStats stats = statsByType.get(typeUrl);
+            boolean extra = !seen.add(typeUrl);
+            estimates[i] = stats == null ? config.defaultMsgGas() : stats.estimate(extra);
+        }
+        return estimates;
+    }
+
+    private MsgGasStats stats(String typeUrl) {
+        return statsByType.computeIfAbsent(typeUrl, k -> new MsgGasStats());
+    }
+
+    /**
+     * 单个 type url 的样本环形缓冲区，分位数结果缓存到下次写入
+     */
+    private final class MsgGasStats {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] samples = new long[config.windowSize()];
+        private int size;
+        private int next;
+        private long cachedEstimate = -1;
+        private volatile long seed = -1;
+        private volatile long extraSeed = -1;
+
+        void add(long sample) {
+            lock.lock();
+            try {
+                samples[next] = sample;
+                next = (next + 1) % samples.length;
+                size = Math.min(size + 1, samples.length);
+                cachedEstimate = -1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int count() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long estimate(boolean extra) {
+            lock.lock();
+            try {
+                if (size < config.minSamples()) {
+                    long value = extra ? extraSeed : seed;
+                    return value >= 0 ? value : config.defaultMsgGas();
+                }
+                if (cachedEstimate < 0) {
+                    long[] sorted = Arrays.copyOf(samples, size);
+                    Arrays.sort(sorted);
+                    int index = (int) Math.ceil(config.percentile() * size) - 1;
+                    long value = sorted[Math.max(0, Math.min(size - 1, index))];
+                    cachedEstimate = Math.ceilDiv(Math.multiplyExact(value, 100 + config.marginPercent()), 100);
+                }
+                return cachedEstimate;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
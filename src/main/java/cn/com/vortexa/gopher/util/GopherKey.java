@@ -0,0 +1,74 @@
+package cn.com.vortexa.gopher.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 已派生好的 secp256k1 密钥，只保存原始私钥 / 压缩公钥字节
+ * 被缓存淘汰时调用 {@link #destroy()} 清零，之后再访问会抛出 IllegalStateException；
+ * 签名只使用 {@link #copyPrivateKey()} 取出的副本，淘汰不会影响已经取出副本的签名
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public final class GopherKey {
+    private final String address;
+    private final byte[] privateKey;
+    private final byte[] publicKey;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean destroyed = false;
+
+    public GopherKey(String address, byte[] privateKey, byte[] publicKey) {
+        if (privateKey == null || privateKey.length != 32) {
+            throw new IllegalArgumentException("private key must be 32 bytes");
+        }
+        this.address = address;
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * 返回私钥副本，与 {@link #destroy()} 互斥，不会拿到清零到一半的数组；调用方用完后应自行清零
+     */
+    public byte[] copyPrivateKey() {
+        lock.lock();
+        try {
+            checkNotDestroyed();
+            return privateKey.clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 33 字节压缩公钥
+     */
+    public byte[] publicKey() {
+        checkNotDestroyed();
+        return publicKey;
+    }
+
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    public void destroy() {
+        lock.lock();
+        try {
+            destroyed = true;
+            Arrays.fill(privateKey, (byte) 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotDestroyed() {
+        if (destroyed) {
+            throw new IllegalStateException("gopher key [%s] already destroyed".formatted(address));
+        }
+    }
+}
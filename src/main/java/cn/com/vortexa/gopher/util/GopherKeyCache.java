@@ -0,0 +1,77 @@
+package cn.com.vortexa.gopher.util;
+
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.wallet.UnreadableWalletException;
+
+import java.util.function.Supplier;
+
+/**
+ * 按钱包地址缓存派生好的密钥，避免每次签名都跑一遍 BIP39(PBKDF2 2048 轮) + BIP32 派生
+ * 优先使用 WalletInfo 里已保存的 privateKey hex，没有时才从助记词派生；条目被淘汰时私钥清零，
+ * 正在签名的请求持有自己的私钥副本，不受淘汰影响
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherKeyCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final GopherKeyCache INSTANCE = new GopherKeyCache(DEFAULT_CAPACITY);
+
+    private final GopherLruCache<String, GopherKey> cache;
+
+    public GopherKeyCache(int capacity) {
+        this.cache = new GopherLruCache<>(capacity, (address, key) -> key.destroy());
+    }
+
+    public static GopherKeyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param walletLoader 未命中时提供含私钥或助记词的完整钱包，命中时不会调用
+     */
+    public GopherKey getKey(String address, Supplier<WalletInfo> walletLoader) throws UnreadableWalletException {
+        GopherKey key = cache.get(address);
+        if (key != null) {
+            return key;
+        }
+        return cache.putIfAbsent(address, loadKey(walletLoader.get()));
+    }
+
+    /**
+     * 按本轮要处理的账户数扩容，避免一轮扫描把缓存整体轮换一遍、每个账户都重新派生
+     */
+    public void ensureCapacity(int accountCount) {
+        cache.ensureCapacity(accountCount);
+    }
+
+    public void invalidate(String address) {
+        cache.invalidate(address);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static GopherKey loadKey(WalletInfo walletInfo) throws UnreadableWalletException {
+        String address = walletInfo.getAddress();
+        if (StrUtil.isNotBlank(walletInfo.getPrivateKey())) {
+            ECKey ecKey = ECKey.fromPrivate(HexUtil.decodeHex(walletInfo.getPrivateKey()));
+            return new GopherKey(address, ecKey.getPrivKeyBytes(), ecKey.getPubKey());
+        }
+        if (StrUtil.isBlank(walletInfo.getMnemonic())) {
+            throw new IllegalArgumentException("gopher wallet [%s] has no private key or mnemonic".formatted(address));
+        }
+        DeterministicKey key = GopherWalletUtil.deriveCosmosKey(walletInfo.getMnemonic());
+        return new GopherKey(address, key.getPrivKeyBytes(), key.getPubKey());
+    }
+}
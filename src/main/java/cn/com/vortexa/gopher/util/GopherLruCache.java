@@ -0,0 +1,137 @@
+package cn.com.vortexa.gopher.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * 有界 LRU 缓存，超出容量时淘汰最久未访问的条目并回调 evictionListener
+ * <p>
+ * 使用 ReentrantLock 而不是 synchronized，虚拟线程下不会 pin 住载体线程
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherLruCache<K, V> {
+    private volatile int capacity;
+    private final BiConsumer<K, V> evictionListener;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, V> map;
+
+    public GopherLruCache(int capacity, BiConsumer<K, V> evictionListener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, " + capacity);
+        }
+        this.capacity = capacity;
+        this.evictionListener = evictionListener;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > GopherLruCache.this.capacity) {
+                    notifyEvicted(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 容量小于 minCapacity 时扩容，只增不减
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+        lock.lock();
+        try {
+            capacity = Math.max(capacity, minCapacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            return map.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 不存在时写入并返回 value；已存在时保留旧值并返回旧值，被丢弃的 value 同样回调 evictionListener
+     * 调用方应在锁外完成慢加载（如 PBKDF2）后再调用此方法
+     */
+    public V putIfAbsent(K key, V value) {
+        lock.lock();
+        try {
+            V exist = map.get(key);
+            if (exist != null) {
+                if (exist != value) {
+                    notifyEvicted(key, value);
+                }
+                return exist;
+            }
+            map.put(key, value);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            V old = map.put(key, value);
+            if (old != null && old != value) {
+                notifyEvicted(key, old);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            V old = map.remove(key);
+            if (old != null) {
+                notifyEvicted(key, old);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            map.forEach(this::notifyEvicted);
+            map.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void notifyEvicted(K key, V value) {
+        if (evictionListener != null) {
+            evictionListener.accept(key, value);
+        }
+    }
+}
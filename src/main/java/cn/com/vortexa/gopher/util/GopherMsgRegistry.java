@@ -0,0 +1,169 @@
+package cn.com.vortexa.gopher.util;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import cosmos.base.v1beta1.CoinOuterClass;
+import cosmos.gov.v1beta1.Gov;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 按 type url 注册的消息编码器
+ * <p>
+ * type url 由消息 descriptor 算出后缓存（包括 Any.type_url 的 UTF-8 字节），
+ * 新增一种操作只需要 register，不用改签名器
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public final class GopherMsgRegistry {
+    private static final Map<String, Entry<?>> BY_TYPE_URL = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Entry<?>> BY_CLASS = new ConcurrentHashMap<>();
+
+    static {
+        register(cosmos.gov.v1beta1.Tx.MsgVote.getDefaultInstance(), value -> cosmos.gov.v1beta1.Tx.MsgVote.newBuilder()
+                .setProposalId(value.getLongValue(key(value, "proposalId", "proposal_id")))
+                .setVoter(value.getString("voter"))
+                .setOption(voteOption(value.get("option")))
+                .build());
+        register(cosmos.staking.v1beta1.Tx.MsgDelegate.getDefaultInstance(), value -> cosmos.staking.v1beta1.Tx.MsgDelegate.newBuilder()
+                .setDelegatorAddress(value.getString(key(value, "delegatorAddress", "delegator_address")))
+                .setValidatorAddress(value.getString(key(value, "validatorAddress", "validator_address")))
+                .setAmount(coin(value.getJSONObject("amount")))
+                .build());
+        register(cosmos.staking.v1beta1.Tx.MsgUndelegate.getDefaultInstance(), value -> cosmos.staking.v1beta1.Tx.MsgUndelegate.newBuilder()
+                .setDelegatorAddress(value.getString(key(value, "delegatorAddress", "delegator_address")))
+                .setValidatorAddress(value.getString(key(value, "validatorAddress", "validator_address")))
+                .setAmount(coin(value.getJSONObject("amount")))
+                .build());
+        register(cosmos.staking.v1beta1.Tx.MsgBeginRedelegate.getDefaultInstance(), value -> cosmos.staking.v1beta1.Tx.MsgBeginRedelegate.newBuilder()
+                .setDelegatorAddress(value.getString(key(value, "delegatorAddress", "delegator_address")))
+                .setValidatorSrcAddress(value.getString(key(value, "validatorSrcAddress", "validator_src_address")))
+                .setValidatorDstAddress(value.getString(key(value, "validatorDstAddress", "validator_dst_address")))
+                .setAmount(coin(value.getJSONObject("amount")))
+                .build());
+        register(cosmos.bank.v1beta1.Tx.MsgSend.getDefaultInstance(), value -> cosmos.bank.v1beta1.Tx.MsgSend.newBuilder()
+                .setFromAddress(value.getString(key(value, "fromAddress", "from_address")))
+                .setToAddress(value.getString(key(value, "toAddress", "to_address")))
+                .addAllAmount(coins(value.getJSONArray("amount")))
+                .build());
+        register(cosmos.distribution.v1beta1.Tx.MsgWithdrawDelegatorReward.getDefaultInstance(), value -> cosmos.distribution.v1beta1.Tx.MsgWithdrawDelegatorReward.newBuilder()
+                .setDelegatorAddress(value.getString(key(value, "delegatorAddress", "delegator_address")))
+                .setValidatorAddress(value.getString(key(value, "validatorAddress", "validator_address")))
+                .build());
+        register(cosmos.authz.v1beta1.Tx.MsgExec.getDefaultInstance(), value -> {
+            cosmos.authz.v1beta1.Tx.MsgExec.Builder builder = cosmos.authz.v1beta1.Tx.MsgExec.newBuilder()
+                    .setGrantee(value.getString("grantee"));
+            JSONArray msgs = value.getJSONArray("msgs");
+            if (msgs != null) {
+                for (int i = 0; i < msgs.size(); i++) {
+                    JSONObject msg = msgs.getJSONObject(i);
+                    builder.addMsgs(fromJson(msg.getString(key(msg, "typeUrl", "@type")), msg.getJSONObject("value")));
+                }
+            }
+            return builder.build();
+        });
+    }
+
+    private GopherMsgRegistry() {
+    }
+
+    /**
+     * 注册一种消息，fromJson 用于解析 hub 接口返回的 {typeUrl, value} 消息
+     */
+    public static <M extends Message> void register(M defaultInstance, Function<JSONObject, M> fromJson) {
+        Entry<M> entry = new Entry<>(typeUrlOf(defaultInstance), fromJson);
+        BY_TYPE_URL.put(entry.typeUrl, entry);
+        BY_CLASS.put(defaultInstance.getClass(), entry);
+    }
+
+    public static boolean isRegistered(String typeUrl) {
+        return BY_TYPE_URL.containsKey(typeUrl);
+    }
+
+    public static String typeUrl(Message msg) {
+        return entryOf(msg).typeUrl;
+    }
+
+    /**
+     * 打包成 Any，type url 使用缓存的字节，未注册的消息按 descriptor 自动注册（不支持 fromJson）
+     */
+    public static Any pack(Message msg) {
+        return Any.newBuilder()
+                .setTypeUrlBytes(entryOf(msg).typeUrlBytes)
+                .setValue(msg.toByteString())
+                .build();
+    }
+
+    /**
+     * 按 type url 把 JSON 消息编码为 Any
+     */
+    public static Any fromJson(String typeUrl, JSONObject value) {
+        Entry<?> entry = BY_TYPE_URL.get(typeUrl);
+        if (entry == null || entry.fromJson == null) {
+            throw new IllegalArgumentException("unsupported msg type url: " + typeUrl);
+        }
+        return Any.newBuilder()
+                .setTypeUrlBytes(entry.typeUrlBytes)
+                .setValue(entry.fromJson.apply(value).toByteString())
+                .build();
+    }
+
+    private static Entry<?> entryOf(Message msg) {
+        return BY_CLASS.computeIfAbsent(msg.getClass(), k -> new Entry<>(typeUrlOf(msg), null));
+    }
+
+    private static String typeUrlOf(Message msg) {
+        return "/" + msg.getDescriptorForType().getFullName();
+    }
+
+    private static String key(JSONObject value, String camelCase, String snakeCase) {
+        return value.containsKey(camelCase) ? camelCase : snakeCase;
+    }
+
+    private static CoinOuterClass.Coin coin(JSONObject coin) {
+        return CoinOuterClass.Coin.newBuilder()
+                .setDenom(coin.getString("denom"))
+                .setAmount(coin.getString("amount"))
+                .build();
+    }
+
+    private static List<CoinOuterClass.Coin> coins(JSONArray coins) {
+        List<CoinOuterClass.Coin> result = new ArrayList<>();
+        if (coins != null) {
+            for (int i = 0; i < coins.size(); i++) {
+                result.add(coin(coins.getJSONObject(i)));
+            }
+        }
+        return result;
+    }
+
+    private static Gov.VoteOption voteOption(Object option) {
+        if (option instanceof Number number) {
+            return Gov.VoteOption.forNumber(number.intValue());
+        }
+        String name = String.valueOf(option);
+        return name.chars().allMatch(Character::isDigit)
+                ? Gov.VoteOption.forNumber(Integer.parseInt(name))
+                : Gov.VoteOption.valueOf(name);
+    }
+
+    private static final class Entry<M extends Message> {
+        private final String typeUrl;
+        private final ByteString typeUrlBytes;
+        private final Function<JSONObject, M> fromJson;
+
+        private Entry(String typeUrl, Function<JSONObject, M> fromJson) {
+            this.typeUrl = typeUrl;
+            this.typeUrlBytes = ByteString.copyFromUtf8(typeUrl);
+            this.fromJson = fromJson;
+        }
+    }
+}
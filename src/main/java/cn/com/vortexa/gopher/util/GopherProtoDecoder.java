@@ -0,0 +1,134 @@
+package cn.com.vortexa.gopher.util;
+
+
+import cn.hutool.core.lang.Pair;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+
+/**
+ * abci_query 响应的轻量解码
+ * <p>
+ * 直接在解码后的 buffer 上用 CodedInputStream 按 tag 读取，嵌套消息用 pushLimit 限定范围，不拷贝子数组、
+ * 不生成中间 String；长度与数值都按 varint 读取，金额以 long 最小单位返回，溢出时抛异常
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public final class GopherProtoDecoder {
+    private static final int TAG_FIELD_1_BYTES = WireFormat.makeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int TAG_FIELD_2_BYTES = WireFormat.makeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int TAG_FIELD_3_VARINT = WireFormat.makeTag(3, WireFormat.WIRETYPE_VARINT);
+    private static final int TAG_FIELD_4_VARINT = WireFormat.makeTag(4, WireFormat.WIRETYPE_VARINT);
+
+    private GopherProtoDecoder() {
+    }
+
+    /**
+     * QueryBalanceResponse{1: Coin{1: denom, 2: amount}}，返回 amount，余额不存在时为 0
+     */
+    public static long decodeBalanceAmount(byte[] buffer) throws InvalidProtocolBufferException {
+        CodedInputStream input = CodedInputStream.newInstance(buffer);
+        long amount = 0;
+        try {
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                if (tag == TAG_FIELD_1_BYTES) {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    amount = readCoinAmount(input);
+                    input.popLimit(limit);
+                } else if (!input.skipField(tag)) {
+                    break;
+                }
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+        return amount;
+    }
+
+    /**
+     * QueryAccountResponse{1: Any{2: BaseAccount{3: account_number, 4: sequence}}}
+     *
+     * @return Pair(accountNumber, sequence)
+     */
+    public static Pair<Long, Long> decodeAccount(byte[] buffer) throws InvalidProtocolBufferException {
+        CodedInputStream input = CodedInputStream.newInstance(buffer);
+        long accountNumber = 0;
+        long sequence = 0;
+        try {
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                if (tag != TAG_FIELD_1_BYTES) {
+                    if (!input.skipField(tag)) {
+                        break;
+                    }
+                    continue;
+                }
+                int anyLimit = input.pushLimit(input.readRawVarint32());
+                while ((tag = input.readTag()) != 0) {
+                    if (tag != TAG_FIELD_2_BYTES) {
+                        input.skipField(tag);
+                        continue;
+                    }
+                    int accountLimit = input.pushLimit(input.readRawVarint32());
+                    while ((tag = input.readTag()) != 0) {
+                        if (tag == TAG_FIELD_3_VARINT) {
+                            accountNumber = input.readUInt64();
+                        } else if (tag == TAG_FIELD_4_VARINT) {
+                            sequence = input.readUInt64();
+                        } else {
+                            input.skipField(tag);
+                        }
+                    }
+                    input.popLimit(accountLimit);
+                }
+                input.popLimit(anyLimit);
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+        return Pair.of(accountNumber, sequence);
+    }
+
+    /**
+     * Coin.amount 是十进制字符串，gRPC 响应已是 String 时用这个转换
+     */
+    public static long parseAmount(String amount) {
+        long value = 0;
+        for (int i = 0; i < amount.length(); i++) {
+            value = appendDigit(value, amount.charAt(i));
+        }
+        return value;
+    }
+
+    private static long readCoinAmount(CodedInputStream input) throws IOException {
+        long amount = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == TAG_FIELD_2_BYTES) {
+                int length = input.readRawVarint32();
+                amount = 0;
+                for (int i = 0; i < length; i++) {
+                    amount = appendDigit(amount, (char) input.readRawByte());
+                }
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return amount;
+    }
+
+    private static long appendDigit(long value, char c) {
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("invalid amount digit: " + c);
+        }
+        return Math.addExact(Math.multiplyExact(value, 10), c - '0');
+    }
+}
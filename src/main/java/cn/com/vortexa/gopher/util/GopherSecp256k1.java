@@ -0,0 +1,97 @@
+package cn.com.vortexa.gopher.util;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointUtil;
+import org.bouncycastle.util.BigIntegers;
+
+import java.math.BigInteger;
+
+/**
+ * JVM 级别共享的 secp256k1 签名引擎
+ * <p>
+ * 曲线、G 点的定点乘法预计算表、n/2 常量只初始化一次；ECDSASigner 本身有状态不能共享，
+ * 每次签名新建的只有 signer / k 计算器这类轻量对象，签名结果直接写入调用方给的缓冲区
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public final class GopherSecp256k1 {
+    public static final int SIGNATURE_LENGTH = 64;
+
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+
+    public static final ECDomainParameters DOMAIN;
+
+    public static final BigInteger HALF_ORDER;
+
+    static {
+        // 预计算 G 点定点乘法表，ECDSASigner 的 FixedPointCombMultiplier 会直接复用
+        FixedPointUtil.precompute(CURVE_PARAMS.getG());
+        DOMAIN = new ECDomainParameters(
+                CURVE_PARAMS.getCurve(), CURVE_PARAMS.getG(), CURVE_PARAMS.getN(), CURVE_PARAMS.getH()
+        );
+        HALF_ORDER = CURVE_PARAMS.getN().shiftRight(1);
+    }
+
+    private GopherSecp256k1() {
+    }
+
+    /**
+     * 对 msg 做 SHA256 后签名，返回 64 字节 r||s，s 已规范化为 low-s
+     */
+    public static byte[] sign(byte[] privKey, byte[] msg) {
+        byte[] out = new byte[SIGNATURE_LENGTH];
+        sign(privKey, msg, 0, msg.length, out, 0);
+        return out;
+    }
+
+    public static void sign(byte[] privKey, byte[] msg, int msgOff, int msgLen, byte[] out, int outOff) {
+        byte[] digest = sha256(msg, msgOff, msgLen);
+
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(new BigInteger(1, privKey), DOMAIN));
+        BigInteger[] sig = signer.generateSignature(digest);
+
+        BigInteger s = sig[1];
+        // canonicalization: s <= n/2
+        if (s.compareTo(HALF_ORDER) > 0) {
+            s = DOMAIN.getN().subtract(s);
+        }
+        BigIntegers.asUnsignedByteArray(sig[0], out, outOff, 32);
+        BigIntegers.asUnsignedByteArray(s, out, outOff + 32, 32);
+    }
+
+    /**
+     * 校验 64 字节 r||s 签名，pubKey 为压缩或非压缩格式公钥
+     */
+    public static boolean verify(byte[] pubKey, byte[] msg, byte[] signature) {
+        if (signature == null || signature.length != SIGNATURE_LENGTH) {
+            return false;
+        }
+        BigInteger r = BigIntegers.fromUnsignedByteArray(signature, 0, 32);
+        BigInteger s = BigIntegers.fromUnsignedByteArray(signature, 32, 32);
+        if (s.compareTo(HALF_ORDER) > 0) {
+            return false;
+        }
+        ECPoint q = DOMAIN.getCurve().decodePoint(pubKey);
+        ECDSASigner signer = new ECDSASigner();
+        signer.init(false, new ECPublicKeyParameters(q, DOMAIN));
+        return signer.verifySignature(sha256(msg, 0, msg.length), r, s);
+    }
+
+    private static byte[] sha256(byte[] msg, int off, int len) {
+        byte[] digest = new byte[32];
+        SHA256Digest sha256 = new SHA256Digest();
+        sha256.update(msg, off, len);
+        sha256.doFinal(digest, 0);
+        return digest;
+    }
+}
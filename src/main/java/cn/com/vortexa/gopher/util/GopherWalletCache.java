@@ -0,0 +1,75 @@
+package cn.com.vortexa.gopher.util;
+
+import cn.com.vortexa.web3.dto.WalletInfo;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * 已解析钱包缓存，以账户参数里的钱包 JSON 字符串本身为 key
+ * <p>
+ * 命中只用到 String 缓存的 hashCode 与 equals，不做摘要、不拷贝，没有任何分配。key 引用的是账户参数里已有的那个字符串，
+ * 不另外复制助记词 / 私钥；value 只保留地址、公钥，条目数随账户数扩容。gopherWallet 参数被改写后内容不同，
+ * 自然查不到旧条目。返回的是缓存里的共享实例，调用方只读不写。签名需要私钥时由 {@link GopherKeyCache} 在未命中时单独解析参数
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherWalletCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final GopherWalletCache INSTANCE = new GopherWalletCache(DEFAULT_CAPACITY);
+
+    private final GopherLruCache<String, WalletInfo> cache;
+
+    public GopherWalletCache(int capacity) {
+        this.cache = new GopherLruCache<>(capacity, null);
+    }
+
+    public static GopherWalletCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 解析并校验钱包 JSON，返回不含助记词、私钥的只读实例；地址不是合法的 gopher bech32 地址时抛 IllegalArgumentException，且不缓存
+     */
+    public WalletInfo getWallet(String walletJSON) {
+        WalletInfo walletInfo = cache.get(walletJSON);
+        if (walletInfo != null) {
+            return walletInfo;
+        }
+        return cache.putIfAbsent(walletJSON, publicCopy(parseWithSecrets(walletJSON)));
+    }
+
+    /**
+     * 解析完整钱包（含助记词、私钥），不经过缓存，只在派生签名密钥时使用
+     */
+    public static WalletInfo parseWithSecrets(String walletJSON) {
+        WalletInfo walletInfo = JSONObject.parseObject(walletJSON, WalletInfo.class);
+        if (!GopherBech32.isValid(walletInfo.getAddress(), GopherBech32.ACCOUNT_HRP)) {
+            throw new IllegalArgumentException("invalid gopher address: " + walletInfo.getAddress());
+        }
+        return walletInfo;
+    }
+
+    public void invalidate(String walletJSON) {
+        cache.invalidate(walletJSON);
+    }
+
+    public void ensureCapacity(int accountCount) {
+        cache.ensureCapacity(accountCount);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static WalletInfo publicCopy(WalletInfo walletInfo) {
+        return WalletInfo.builder()
+                .address(walletInfo.getAddress())
+                .publicKey(walletInfo.getPublicKey())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package cn.com.vortexa.gopher.util;
+
+
+import cn.com.vortexa.web3.EthWalletUtil;
+import cn.com.vortexa.web3.dto.WalletInfo;
+import cn.hutool.core.util.StrUtil;
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量钱包生成，大批量账户导入时使用
+ * <p>
+ * 助记词 -> PBKDF2 -> HD 派生是纯 CPU 计算，按核数开平台线程并行；每个线程处理一段连续的账户，
+ * 段内复用同一组 SHA256 / RIPEMD160 hasher
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+public class GopherWalletGenerator implements AutoCloseable {
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public GopherWalletGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GopherWalletGenerator(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread thread = new Thread(r, "gopher-wallet-gen-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 并行生成钱包，结果顺序与 mnemonics 一致；助记词为空的位置生成新助记词
+     */
+    public List<WalletInfo> generate(List<String> mnemonics) {
+        int size = mnemonics.size();
+        if (size == 0) {
+            return List.of();
+        }
+        WalletInfo[] result = new WalletInfo[size];
+        int chunkSize = Math.ceilDiv(size, parallelism);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(parallelism);
+        for (int start = 0; start < size; start += chunkSize) {
+            int from = start;
+            int to = Math.min(size, start + chunkSize);
+            futures.add(CompletableFuture.runAsync(() -> generateRange(mnemonics, from, to, result), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        return List.of(result);
+    }
+
+    private static void generateRange(List<String> mnemonics, int from, int to, WalletInfo[] result) {
+        SHA256Digest sha256 = new SHA256Digest();
+        RIPEMD160Digest ripemd160 = new RIPEMD160Digest();
+        for (int i = from; i < to; i++) {
+            try {
+                String mnemonic = mnemonics.get(i);
+                if (StrUtil.isEmpty(mnemonic)) {
+                    mnemonic = EthWalletUtil.generateMnemonic();
+                }
+                result[i] = GopherWalletUtil.generateGopherWalletFormMnemonic(mnemonic, sha256, ripemd160);
+            } catch (Exception e) {
+                throw new IllegalStateException("generate wallet fail at index " + i + ", " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -4,26 +4,18 @@ package cn.com.vortexa.gopher.util;
 import cn.com.vortexa.web3.EthWalletUtil;
 import cn.com.vortexa.web3.dto.WalletInfo;
 import cn.hutool.core.lang.Pair;
-import com.google.protobuf.Any;
 import com.google.protobuf.CodedOutputStream;
-import com.google.protobuf.InvalidProtocolBufferException;
-import cosmos.auth.v1beta1.Auth;
 import cosmos.auth.v1beta1.QueryOuterClass;
-import cosmos.tx.v1beta1.TxOuterClass;
 import org.bitcoinj.crypto.ChildNumber;
 import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
 import org.bitcoinj.crypto.HDUtils;
-import org.bitcoinj.wallet.DeterministicKeyChain;
 import org.bitcoinj.wallet.DeterministicSeed;
 import org.bitcoinj.wallet.UnreadableWalletException;
 import org.bouncycastle.crypto.digests.RIPEMD160Digest;
 import org.bouncycastle.crypto.digests.SHA256Digest;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
 import java.util.List;
 
 /**
@@ -31,13 +23,7 @@ import java.util.List;
  * @since 2025-10-02
  */
 public class GopherWalletUtil {
-
-    public static String toMicroUnit(double amount, int precision) {
-        BigDecimal bd = BigDecimal.valueOf(amount);
-        BigDecimal factor = BigDecimal.TEN.pow(precision);
-        BigDecimal micro = bd.multiply(factor);
-        return micro.setScale(0, RoundingMode.DOWN).toBigInteger().toString();
-    }
+    private static final List<ChildNumber> COSMOS_HD_PATH = HDUtils.parsePath("44H/118H/0H/0/0");
 
     public static String buildQueryBalanceData(String address, String denom) throws IOException {
         int size = 1 + CodedOutputStream.computeStringSizeNoTag(address)
@@ -60,52 +46,14 @@ public class GopherWalletUtil {
         return bytesToHex(req.toByteArray());
     }
 
-    public static Pair<Long, Long> resolveAccountValue(String base64Value) throws InvalidProtocolBufferException {
-        byte[] bytes = java.util.Base64.getDecoder().decode(base64Value);
-        TxOuterClass.TxBody txBody = TxOuterClass.TxBody.parseFrom(bytes);
-        Any msgAny = txBody.getMessagesList().getFirst();
-        byte[] inner = msgAny.getValue().toByteArray();
-        Auth.BaseAccount baseAccount = Auth.BaseAccount.parseFrom(inner);
-        return Pair.of(baseAccount.getAccountNumber(), baseAccount.getSequence());
-    }
-
-    public static Pair<Double, String> resolveBalanceValue(String base64Value) {
-        // 1. Base64 解码
-        byte[] bytes = Base64.getDecoder().decode(base64Value);
-
-        // 2. 解析 protobuf 格式（field 1 是 Coin）
-        // Coin 的结构是：
-        // 1: denom (string)
-        // 2: amount (string)
-        // 我们简单解析出两个字符串
-
-        int index = 0;
-        // 跳过 field tag
-        index++; // 0a
-        int coinLength = bytes[index++];
-
-        // 子消息 Coin
-        byte[] coinBytes = new byte[coinLength];
-        System.arraycopy(bytes, index, coinBytes, 0, coinLength);
-
-        index = 0;
-        // 读取 denom
-        index++; // 0a
-        int denomLen = coinBytes[index++];
-        String denom = new String(coinBytes, index, denomLen, StandardCharsets.UTF_8);
-        index += denomLen;
-
-        // 读取 amount
-        index++; // 12
-        int amountLen = coinBytes[index++];
-        String amount = new String(coinBytes, index, amountLen, StandardCharsets.UTF_8);
-
-        // 4. 如果 denom 是以 u 开头（最小单位），做单位换算
+    /**
+     * 最小单位余额转为展示用余额，u 开头的 denom 按 10^6 换算
+     */
+    public static Pair<Double, String> toDisplayBalance(long amount, String denom) {
         if (denom.startsWith("u")) {
-            double value = Double.parseDouble(amount) / 1_000_000.0;
-            return Pair.of(value, denom.substring(1).toUpperCase());
+            return Pair.of(amount / 1_000_000.0, denom.substring(1).toUpperCase());
         } else {
-            return Pair.of(Double.parseDouble(amount), denom);
+            return Pair.of((double) amount, denom);
         }
     }
 
@@ -114,36 +62,56 @@ public class GopherWalletUtil {
     }
 
     public static WalletInfo generateGopherWalletFormMnemonic(String mnemonic) throws UnreadableWalletException {
-        DeterministicSeed seed = new DeterministicSeed(mnemonic, null, "", 0);
-        DeterministicKeyChain chain = DeterministicKeyChain.builder().seed(seed).build();
+        return generateGopherWalletFormMnemonic(mnemonic, new SHA256Digest(), new RIPEMD160Digest());
+    }
 
-        // ✅ 派生路径：m/44'/118'/0'/0/0（Cosmos 系标准）
-        List<ChildNumber> path = HDUtils.parsePath("44H/118H/0H/0/0");
-        DeterministicKey key = chain.getKeyByPath(path, true);
+    /**
+     * 复用调用方传入的 hasher，批量生成时每个工作线程各持有一组，用完即 reset
+     */
+    public static WalletInfo generateGopherWalletFormMnemonic(
+            String mnemonic, SHA256Digest sha256, RIPEMD160Digest ripemd160
+    ) throws UnreadableWalletException {
+        DeterministicKey key = deriveCosmosKey(mnemonic);
 
         byte[] pubKey = key.getPubKey();
+        String address = GopherBech32.encode(GopherBech32.ACCOUNT_HRP, pubKeyToAddressBytes(pubKey, sha256, ripemd160));
+
+        return WalletInfo.builder()
+                .mnemonic(mnemonic)
+                .privateKey(key.getPrivateKeyAsHex())
+                .address(address)
+                .publicKey(bytesToHex(pubKey))
+                .build();
+    }
 
-        // ✅ 1. 对公钥做 SHA256
-        SHA256Digest sha256 = new SHA256Digest();
+    /**
+     * RIPEMD160(SHA256(pubKey))，即 20 字节账户地址
+     */
+    public static byte[] pubKeyToAddressBytes(byte[] pubKey, SHA256Digest sha256, RIPEMD160Digest ripemd160) {
+        sha256.reset();
         sha256.update(pubKey, 0, pubKey.length);
         byte[] shaOut = new byte[32];
         sha256.doFinal(shaOut, 0);
 
-        // ✅ 2. 对 SHA256 结果做 RIPEMD160
-        RIPEMD160Digest ripemd160 = new RIPEMD160Digest();
+        ripemd160.reset();
         ripemd160.update(shaOut, 0, shaOut.length);
         byte[] addressBytes = new byte[20];
         ripemd160.doFinal(addressBytes, 0);
+        return addressBytes;
+    }
 
-        // ✅ 3. Bech32 编码，前缀 "gopher"
-        String address = Bech32.encode("gopher", Bech32.toWords(addressBytes));
-
-        return WalletInfo.builder()
-                .mnemonic(mnemonic)
-                .privateKey(key.getPrivateKeyAsHex())
-                .address(address)
-                .publicKey(bytesToHex(pubKey))
-                .build();
+    /**
+     * 从助记词派生 Cosmos 账户密钥，开销很大（PBKDF2），签名场景请走 {@link GopherKeyCache}
+     * <p>
+     * 直接沿 m/44'/118'/0'/0/0 逐级派生，不构建 DeterministicKeyChain（后者会额外派生并缓存整条 key 链）
+     */
+    public static DeterministicKey deriveCosmosKey(String mnemonic) throws UnreadableWalletException {
+        DeterministicSeed seed = new DeterministicSeed(mnemonic, null, "", 0);
+        DeterministicKey key = HDKeyDerivation.createMasterPrivateKey(seed.getSeedBytes());
+        for (ChildNumber childNumber : COSMOS_HD_PATH) {
+            key = HDKeyDerivation.deriveChildKey(key, childNumber);
+        }
+        return key;
     }
 
     private static String bytesToHex(byte[] bytes) {
@@ -151,87 +119,4 @@ public class GopherWalletUtil {
         for (byte b : bytes) sb.append(String.format("%02x", b));
         return sb.toString();
     }
-
-    // ====== ✅ Bech32 工具类实现 ======
-    static class Bech32 {
-        private static final String CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l";
-        private static final int[] GENERATOR = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
-
-        public static String encode(String hrp, byte[] data) {
-            int[] checksum = createChecksum(hrp, data);
-            byte[] combined = new byte[data.length + checksum.length];
-            System.arraycopy(data, 0, combined, 0, data.length);
-            for (int i = 0; i < checksum.length; i++) {
-                combined[data.length + i] = (byte) checksum[i];
-            }
-            StringBuilder sb = new StringBuilder(hrp.length() + 1 + combined.length);
-            sb.append(hrp);
-            sb.append('1');
-            for (byte b : combined) {
-                sb.append(CHARSET.charAt(b));
-            }
-            return sb.toString();
-        }
-
-        public static byte[] toWords(byte[] bytes) {
-            int value = 0;
-            int bits = 0;
-            java.util.List<Byte> ret = new java.util.ArrayList<>();
-            for (byte b : bytes) {
-                value = (value << 8) | (b & 0xff);
-                bits += 8;
-                while (bits >= 5) {
-                    ret.add((byte) ((value >> (bits - 5)) & 31));
-                    bits -= 5;
-                }
-            }
-            if (bits > 0) {
-                ret.add((byte) ((value << (5 - bits)) & 31));
-            }
-            byte[] out = new byte[ret.size()];
-            for (int i = 0; i < ret.size(); i++) out[i] = ret.get(i);
-            return out;
-        }
-
-        private static int[] createChecksum(String hrp, byte[] data) {
-            int[] values = new int[hrpExpand(hrp).length + data.length + 6];
-            System.arraycopy(hrpExpand(hrp), 0, values, 0, hrpExpand(hrp).length);
-            for (int i = 0; i < data.length; i++) {
-                values[hrpExpand(hrp).length + i] = data[i];
-            }
-            int polymod = polymod(values) ^ 1;
-            int[] ret = new int[6];
-            for (int i = 0; i < 6; i++) {
-                ret[i] = (polymod >> (5 * (5 - i))) & 31;
-            }
-            return ret;
-        }
-
-        private static int[] hrpExpand(String hrp) {
-            int len = hrp.length();
-            int[] ret = new int[len * 2 + 1];
-            for (int i = 0; i < len; i++) {
-                ret[i] = hrp.charAt(i) >> 5;
-            }
-            ret[len] = 0;
-            for (int i = 0; i < len; i++) {
-                ret[len + 1 + i] = hrp.charAt(i) & 31;
-            }
-            return ret;
-        }
-
-        private static int polymod(int[] values) {
-            int chk = 1;
-            for (int v : values) {
-                int top = chk >> 25;
-                chk = ((chk & 0x1ffffff) << 5) ^ v;
-                for (int i = 0; i < 5; i++) {
-                    if (((top >> i) & 1) == 1) {
-                        chk ^= GENERATOR[i];
-                    }
-                }
-            }
-            return chk;
-        }
-    }
 }
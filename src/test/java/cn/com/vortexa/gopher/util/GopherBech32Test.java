@@ -0,0 +1,97 @@
+package cn.com.vortexa.gopher.util;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BIP-173 测试向量（https://github.com/bitcoin/bips/blob/master/bip-0173.mediawiki#test-vectors）
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+class GopherBech32Test {
+    private static final List<String> VALID = List.of(
+            "A12UEL5L",
+            "a12uel5l",
+            "an83characterlonghumanreadablepartthatcontainsthenumber1andtheexcludedcharactersbio1tt5tgs",
+            "abcdef1qpzry9x8gf2tvdw0s3jn54khce6mua7lmqqqxw",
+            "11" + "q".repeat(82) + "c8247j",
+            "split1checkupstagehandshakeupstreamerranterredcaperred2y9e3w",
+            "?1ezyfcl"
+    );
+
+    private static final List<String> INVALID = List.of(
+            // hrp 字符超出范围
+            " 1nwldj5",
+            "\u007f1axkwrx",
+            "\u00801eym55h",
+            // 总长度超过 90
+            "an84characterslonghumanreadablepartthatcontainsthenumber1andtheexcludedcharactersbio1569pvx",
+            // 没有分隔符
+            "pzry9x0s0muk",
+            // hrp 为空
+            "1pzry9x0s0muk",
+            "10a06t8",
+            "1qzzfhee",
+            // 数据部分字符非法
+            "x1b4n0q5v",
+            // checksum 太短
+            "li1dgmt3",
+            // checksum 中字符非法
+            "de1lg7wtÿ",
+            // checksum 按大写 hrp 计算
+            "A1G7SGD8"
+    );
+
+    @Test
+    void validVectorsDecodeAndReEncode() {
+        for (String address : VALID) {
+            GopherBech32.Decoded decoded = GopherBech32.decode(address);
+            assertEquals(address.toLowerCase(Locale.ROOT), GopherBech32.encode(decoded.hrp(), decoded.data()), address);
+        }
+    }
+
+    @Test
+    void invalidVectorsAreRejected() {
+        for (String address : INVALID) {
+            assertThrows(IllegalArgumentException.class, () -> GopherBech32.decode(address), address);
+        }
+    }
+
+    @Test
+    void gopherAddressRoundTrip() {
+        byte[] data = new byte[20];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 13);
+        }
+        String address = GopherBech32.encode(GopherBech32.ACCOUNT_HRP, data);
+        assertTrue(GopherBech32.isValid(address, GopherBech32.ACCOUNT_HRP));
+        assertFalse(GopherBech32.isValid(address, GopherBech32.VALIDATOR_HRP));
+        assertArrayEquals(data, GopherBech32.decode(address).data());
+
+        String validator = "gophervaloper1smqe67yyzwluucgf4chdta22gnl7ye7na3u63d";
+        assertTrue(GopherBech32.isValid(validator, GopherBech32.VALIDATOR_HRP));
+        assertFalse(GopherBech32.isValid(validator.substring(0, validator.length() - 1) + "e", GopherBech32.VALIDATOR_HRP));
+    }
+
+    @Test
+    void uppercaseHrpDecodesUnderTurkishLocale() {
+        String address = GopherBech32.encode("i", new byte[]{1, 2, 3}).toUpperCase(Locale.ROOT);
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals("i", GopherBech32.decode(address).hrp());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
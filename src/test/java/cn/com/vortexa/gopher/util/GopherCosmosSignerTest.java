@@ -0,0 +1,205 @@
+package cn.com.vortexa.gopher.util;
+
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import cosmos.base.v1beta1.CoinOuterClass;
+import cosmos.crypto.secp256k1.Keys;
+import cosmos.gov.v1beta1.Gov;
+import cosmos.tx.signing.v1beta1.Signing;
+import cosmos.tx.v1beta1.TxOuterClass;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 手工编码的 SignDoc / TxRaw 必须与 protobuf 生成代码逐字节一致，否则签名在链上无法校验
+ *
+ * @author helei
+ * @since 2025-10-02
+ */
+class GopherCosmosSignerTest {
+    private static final byte[] PRIVATE_KEY = fill(32, (byte) 0x11);
+    private static final String VOTER = GopherBech32.encode(GopherBech32.ACCOUNT_HRP, fill(20, (byte) 0x42));
+    private static final String VALIDATOR = "gophervaloper1smqe67yyzwluucgf4chdta22gnl7ye7na3u63d";
+    private static final String DENOM = "ugoai";
+
+    private static final List<String> CHAIN_IDS = List.of("gopher-testnet", "");
+    private static final List<Long> ACCOUNT_NUMBERS = List.of(0L, 1L, 127L, 128L, 123_456_789L, Long.MAX_VALUE, -1L);
+
+    @Test
+    void signDocMatchesProtobuf() {
+        for (List<Any> messages : messageSets()) {
+            ByteString bodyBytes = body(messages).toByteString();
+            ByteString authInfoBytes = authInfo(7).toByteString();
+            for (String chainId : CHAIN_IDS) {
+                for (long accountNumber : ACCOUNT_NUMBERS) {
+                    byte[] expected = TxOuterClass.SignDoc.newBuilder()
+                            .setBodyBytes(bodyBytes)
+                            .setAuthInfoBytes(authInfoBytes)
+                            .setChainId(chainId)
+                            .setAccountNumber(accountNumber)
+                            .build()
+                            .toByteArray();
+                    assertArrayEquals(
+                            expected,
+                            GopherCosmosSigner.encodeSignDoc(bodyBytes, authInfoBytes, chainId, accountNumber),
+                            "messages[%s] chainId[%s] accountNumber[%s]".formatted(messages.size(), chainId, accountNumber)
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    void signDocWithoutChainIdMatchesProtobuf() {
+        ByteString bodyBytes = body(messageSets().get(0)).toByteString();
+        ByteString authInfoBytes = authInfo(0).toByteString();
+        byte[] expected = TxOuterClass.SignDoc.newBuilder()
+                .setBodyBytes(bodyBytes)
+                .setAuthInfoBytes(authInfoBytes)
+                .build()
+                .toByteArray();
+        assertArrayEquals(expected, GopherCosmosSigner.encodeSignDoc(bodyBytes, authInfoBytes, null, 0));
+    }
+
+    @Test
+    void txRawWithPatchedSignatureMatchesProtobuf() {
+        byte[] signature = new byte[GopherSecp256k1.SIGNATURE_LENGTH];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = (byte) (i * 7 + 1);
+        }
+        for (List<Any> messages : messageSets()) {
+            ByteString bodyBytes = body(messages).toByteString();
+            ByteString authInfoBytes = authInfo(3).toByteString();
+            byte[] txRaw = GopherCosmosSigner.encodeUnsignedTxRaw(bodyBytes, authInfoBytes);
+            System.arraycopy(signature, 0, txRaw, txRaw.length - signature.length, signature.length);
+
+            byte[] expected = TxOuterClass.TxRaw.newBuilder()
+                    .setBodyBytes(bodyBytes)
+                    .setAuthInfoBytes(authInfoBytes)
+                    .addSignatures(ByteString.copyFrom(signature))
+                    .build()
+                    .toByteArray();
+            assertArrayEquals(expected, txRaw, "messages[%s]".formatted(messages.size()));
+        }
+    }
+
+    @Test
+    void signedTxIsCanonicalAndVerifies() {
+        byte[] publicKey = GopherSecp256k1.DOMAIN.getG().multiply(new BigInteger(1, PRIVATE_KEY)).normalize().getEncoded(true);
+        for (List<Any> messages : messageSets()) {
+            for (long accountNumber : List.of(0L, 42L)) {
+                GopherCosmosSigner signer = GopherCosmosSigner.builder()
+                        .chainId("gopher-testnet")
+                        .accountNumber(accountNumber)
+                        .sequence(5)
+                        .gasLimit(300_000)
+                        .feeAmount(GopherAmount.ofMicro(7_500))
+                        .feeDenom(DENOM)
+                        .addMessages(messages);
+                GopherKey key = new GopherKey(VOTER, PRIVATE_KEY.clone(), publicKey);
+                GopherCosmosSigner.SignRequest request = signer.prepare(key);
+                byte[] signDoc = request.signDoc().clone();
+                byte[] txBytes = Base64.getDecoder().decode(GopherCosmosSigner.sign(request));
+
+                TxOuterClass.TxRaw txRaw = parseTxRaw(txBytes);
+                assertArrayEquals(txRaw.toByteArray(), txBytes);
+                assertEquals(1, txRaw.getSignaturesCount());
+
+                TxOuterClass.TxBody txBody = parseBody(txRaw.getBodyBytes());
+                assertEquals(messages, txBody.getMessagesList());
+                TxOuterClass.AuthInfo authInfo = parseAuthInfo(txRaw.getAuthInfoBytes());
+                assertEquals(5, authInfo.getSignerInfos(0).getSequence());
+                assertEquals(300_000, authInfo.getFee().getGasLimit());
+
+                byte[] expectedSignDoc = TxOuterClass.SignDoc.newBuilder()
+                        .setBodyBytes(txRaw.getBodyBytes())
+                        .setAuthInfoBytes(txRaw.getAuthInfoBytes())
+                        .setChainId("gopher-testnet")
+                        .setAccountNumber(accountNumber)
+                        .build()
+                        .toByteArray();
+                assertArrayEquals(expectedSignDoc, signDoc);
+                assertTrue(GopherSecp256k1.verify(publicKey, signDoc, txRaw.getSignatures(0).toByteArray()));
+                // 签名后私钥副本已清零
+                assertArrayEquals(new byte[32], request.privateKey());
+                key.destroy();
+            }
+        }
+    }
+
+    private static List<List<Any>> messageSets() {
+        Any vote1 = GopherCosmosSigner.voteMsg(1, VOTER, Gov.VoteOption.VOTE_OPTION_YES);
+        Any vote2 = GopherCosmosSigner.voteMsg(2, VOTER, Gov.VoteOption.VOTE_OPTION_NO);
+        Any vote300 = GopherCosmosSigner.voteMsg(300, VOTER, Gov.VoteOption.VOTE_OPTION_NO_WITH_VETO);
+        Any delegate = GopherCosmosSigner.delegateMsg(VOTER, VALIDATOR, GopherAmount.ofMicro(1_234_567), DENOM);
+        return List.of(
+                List.of(vote1),
+                List.of(delegate),
+                List.of(vote1, vote2, vote300),
+                List.of(vote1, delegate, vote2)
+        );
+    }
+
+    private static TxOuterClass.TxBody body(List<Any> messages) {
+        return TxOuterClass.TxBody.newBuilder()
+                .addAllMessages(messages)
+                .build();
+    }
+
+    private static TxOuterClass.AuthInfo authInfo(long sequence) {
+        Any publicKey = Any.newBuilder()
+                .setTypeUrl("/cosmos.crypto.secp256k1.PubKey")
+                .setValue(Keys.PubKey.newBuilder().setKey(ByteString.copyFrom(fill(33, (byte) 0x02))).build().toByteString())
+                .build();
+        return TxOuterClass.AuthInfo.newBuilder()
+                .addSignerInfos(TxOuterClass.SignerInfo.newBuilder()
+                        .setPublicKey(publicKey)
+                        .setModeInfo(TxOuterClass.ModeInfo.newBuilder()
+                                .setSingle(TxOuterClass.ModeInfo.Single.newBuilder()
+                                        .setMode(Signing.SignMode.SIGN_MODE_DIRECT)))
+                        .setSequence(sequence))
+                .setFee(TxOuterClass.Fee.newBuilder()
+                        .addAmount(CoinOuterClass.Coin.newBuilder().setDenom(DENOM).setAmount("5000"))
+                        .setGasLimit(200_000))
+                .build();
+    }
+
+    private static TxOuterClass.TxRaw parseTxRaw(byte[] bytes) {
+        try {
+            return TxOuterClass.TxRaw.parseFrom(bytes);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static TxOuterClass.TxBody parseBody(ByteString bytes) {
+        try {
+            return TxOuterClass.TxBody.parseFrom(bytes);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static TxOuterClass.AuthInfo parseAuthInfo(ByteString bytes) {
+        try {
+            return TxOuterClass.AuthInfo.parseFrom(bytes);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static byte[] fill(int length, byte value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return bytes;
+    }
+}